@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a map into square chunks which are only allocated and generated the first time
+ * one of their tiles is read or changed. Memory therefore grows with the explored area of
+ * the map rather than with its size. Chunks found at the right and bottom edges of the map
+ * are smaller when the size of the map is not a multiple of the chunk size.
+ */
+public class ChunkedTileStorage implements TileStorage {
+
+    /**
+     * Called once for every chunk, the first time it is needed.
+     */
+    public interface ChunkGenerator {
+
+        /**
+         * Fills a newly allocated chunk, which is initially all Grass.
+         *
+         * @param chunk: The chunk to fill, using coordinates local to the chunk.
+         * @param originX: The x-coordinate on the map of the top left tile of the chunk.
+         * @param originY: The y-coordinate on the map of the top left tile of the chunk.
+         */
+        void generate(final PackedTileStorage chunk, final int originX, final int originY);
+    }
+
+    private final int size, chunkSize;
+    private final ChunkGenerator generator;
+    private final List<PackedTileStorage> chunks = new ArrayList<PackedTileStorage>();
+    private final PositionIntMap chunkIndexes = new PositionIntMap(-1);
+
+    /**
+     * @param size: Width and height of the map in tiles.
+     * @param chunkSize: Width and height of a chunk in tiles.
+     * @param generator: Fills every chunk when it is first needed.
+     */
+    public ChunkedTileStorage(final int size, final int chunkSize, final ChunkGenerator generator) {
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.generator = generator;
+    }
+
+    @Override
+    public Map.TILE_TYPE getTile(final int x, final int y) {
+        return getChunk(x / chunkSize, y / chunkSize).getTile(x % chunkSize, y % chunkSize);
+    }
+
+    @Override
+    public void setTile(final int x, final int y, final Map.TILE_TYPE type) {
+        getChunk(x / chunkSize, y / chunkSize).setTile(x % chunkSize, y % chunkSize, type);
+    }
+
+    /**
+     * Returns the number of chunks generated so far.
+     *
+     * @return Number of generated chunks.
+     */
+    public synchronized int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Returns the chunk found at the specified chunk coordinates, generating it if
+     * it was never needed before.
+     */
+    private synchronized PackedTileStorage getChunk(final int chunkX, final int chunkY) {
+        final int index = chunkIndexes.get(chunkX, chunkY);
+
+        if (index >= 0) {
+            return chunks.get(index);
+        }
+        final int originX = chunkX * chunkSize, originY = chunkY * chunkSize;
+        final PackedTileStorage chunk = new PackedTileStorage(Math.min(chunkSize, size - originX),
+                Math.min(chunkSize, size - originY));
+
+        generator.generate(chunk, originX, originY);
+        chunkIndexes.put(chunkX, chunkY, chunks.size());
+        chunks.add(chunk);
+        return chunk;
+    }
+}
@@ -1,4 +1,5 @@
 import exceptions.GameWasNotInitialized;
+import exceptions.NotEnoughGrassTiles;
 import exceptions.PositionIsOutOfRange;
 import exceptions.SizeOfMapWasNotSet;
 import org.apache.commons.io.FileUtils;
@@ -23,9 +24,37 @@ public class Game {
     /**
      * Locations of files and a directory.
      */
+    private static final String DEFAULT_PLAYERS_MAP_LOCATION = "src/main/resources/players-maps/";
     private final File HTMLTemplateLocation = new File("src/main/resources/html-template/SoftEngineer.html");
-    private final String playersMapLocation = "src/main/resources/players-maps/";
-    private final File GitIgnoreLocation = new File("src/main/resources/players-maps/.gitignore");
+    private final File playersMapLocation;
+    private final File GitIgnoreLocation;
+
+    /**
+     * The HTML template, read the first time the files are generated and kept in memory.
+     */
+    private HTMLTemplate htmlTemplate = null;
+
+    /**
+     * Largest number of HTML files written at once, and the renderer writing them, which is
+     * created for every game.
+     */
+    private int renderThreads = Runtime.getRuntime().availableProcessors();
+    private HTMLFileRenderer htmlRenderer = null;
+
+    /**
+     * In asynchronous mode the files are written by a background stage while the game goes
+     * on, instead of by the game itself.
+     */
+    private boolean asyncOutput = true;
+    private HTMLOutputStage htmlOutput = null;
+
+    /**
+     * In incremental mode the files are written in full once, and each turn after that only
+     * the cells that changed are appended to them (the renderer keeps track of the files that
+     * still need to be written in full). The directory is only cleaned on the first turn.
+     */
+    private boolean incrementalOutput = false;
+    private boolean directoryCleaned = false;
 
     /**
      * Scanner used during the game to read from the input stream specified in the constructor.
@@ -41,6 +70,16 @@ public class Game {
     private Map map = null;
     private final List<Player> winners = new ArrayList<Player>();
 
+    /**
+     * Pool from which the map is taken if one is ready, null if the map is always generated.
+     */
+    private MapPool mapPool = null;
+
+    /**
+     * How the teams share the positions of their players, in collaborative mode.
+     */
+    private Team.SYNC_MODE teamSyncMode = Team.SYNC_MODE.IMMEDIATE;
+
     /**
      * Defines four values used as movement directions.
      */
@@ -66,7 +105,22 @@ public class Game {
      * @param in The custom input stream to be read.
      */
     public Game(final InputStream in) {
-        scanner = new Scanner(in);
+        this(in, new File(DEFAULT_PLAYERS_MAP_LOCATION));
+    }
+
+    /**
+     * Constructor for the game which also allows for a custom directory for the HTML files
+     * of the players. Every game running at the same time needs its own directory since the
+     * directory is cleaned when the game writes the files of its first turn, and the files
+     * are written to or appended to every turn after that.
+     *
+     * @param in The custom input stream to be read.
+     * @param playersMapLocation Directory in which the HTML files of the players are written.
+     */
+    public Game(final InputStream in, final File playersMapLocation) {
+        this.scanner = new Scanner(in);
+        this.playersMapLocation = playersMapLocation;
+        this.GitIgnoreLocation = new File(playersMapLocation, ".gitignore");
     }
 
     /**
@@ -79,12 +133,14 @@ public class Game {
      *
      * @throws GameWasNotInitialized Thrown by setMapSize() if the number of player was not set
      * since the minimum size of the map depends on the number of players.
-     * @throws SizeOfMapWasNotSet Thrown by map.generate() and map.setInitialPlayerPosition(...)
+     * @throws SizeOfMapWasNotSet Thrown by map.generate() and map.setInitialPlayerPositions(...)
      * if the size of the map was not set since these operations depend on the map size.
-     * @throws PositionIsOutOfRange Thrown by map.setInitialPlayerPosition(...) if the position
+     * @throws PositionIsOutOfRange Thrown by map.setInitialPlayerPositions(...) if the position
      * specified violates the map bounds.
+     * @throws NotEnoughGrassTiles Thrown by map.setInitialPlayerPositions(...) if the map has
+     * less Grass tiles than players.
      */
-    public void setup() throws GameWasNotInitialized, SizeOfMapWasNotSet, PositionIsOutOfRange {
+    public void setup() throws GameWasNotInitialized, SizeOfMapWasNotSet, PositionIsOutOfRange, NotEnoughGrassTiles {
         MapCreator mapCreator;
         MapCreator.MAP_TYPE mapType;
 
@@ -101,12 +157,14 @@ public class Game {
         // Set up map
         mapType = setMapType();
         mapCreator = new MapCreator();
+        mapCreator.setMapPool(mapPool);
         map = mapCreator.createMap(mapType, this);
 
         // Initialize teams
         if (teams != null) {
             for (int i = 0; i < teams.length; i++) {
                 teams[i] = new Team(i + 1);
+                teams[i].setSyncMode(teamSyncMode);
             }
         }
 
@@ -119,11 +177,13 @@ public class Game {
             }
         }
 
-        // Set player initial positions
+        // Set player initial positions, each on a different tile
+        map.setInitialPlayerPositions(players);
         for (final Player p : players) {
-            map.setInitialPlayerPosition(p);
             p.resetInitialPosition();
         }
+        // Batched teams only buffered the start positions, share them before the first turn
+        flushTeams();
     }
 
     /**
@@ -143,51 +203,59 @@ public class Game {
             throw new GameWasNotInitialized("Players array");
         }
 
-        // Main game loop
-        do {
-            System.out.println("-----------------");
-            System.out.println("Turn " + (turns++));
-            System.out.println("-----------------");
-
-            // Generate output files
-            generateHTMLFiles();
-
-            // Ask users for direction to move
-            for (final Player p : players) {
-
-                System.out.println("It's Player " + p.getID() + "'s turn.");
-                MOVE_DIRECTION dir;
-                do {
-                    System.out.println("Insert a direction to move: (U)p, (D)own, (L)eft, or (R)ight");
-                    dir = getValidDirection();
-                } while (!verifyDirectionAndMove(p, dir));
-            }
-
-            // Separator
-            System.out.println();
-
-            // Check where the players landed
-            for (final Player p : players) {
-                final Position pos = p.getPosition();
-
-                switch (map.getTileType(pos.getX(), pos.getY())) {
-                    case TREASURE:
-                        System.out.println("Player " + p.getID() + " landed on the treasure!");
-                        winners.add(p);
-                        break;
-                    case GRASS:
-                        System.out.println("Player " + p.getID() + " landed on grass!");
-                        break;
-                    case WATER:
-                        System.out.println("Player " + p.getID() + " landed on water!");
-                        p.backToStartPosition();
-                        break;
+        try {
+            // Main game loop
+            do {
+                System.out.println("-----------------");
+                System.out.println("Turn " + (turns++));
+                System.out.println("-----------------");
+
+                // Generate output files, after which the changes of the last turn are not needed
+                generateHTMLFiles();
+                endTurn();
+
+                // Ask users for direction to move
+                for (final Player p : players) {
+
+                    System.out.println("It's Player " + p.getID() + "'s turn.");
+                    MOVE_DIRECTION dir;
+                    do {
+                        System.out.println("Insert a direction to move: (U)p, (D)own, (L)eft, or (R)ight");
+                        dir = getValidDirection();
+                    } while (!verifyDirectionAndMove(p, dir));
                 }
-            }
-        } while (winners.size() == 0);
+                flushTeams();
+
+                // Separator
+                System.out.println();
+
+                // Check where the players landed
+                for (final Player p : players) {
+                    final Position pos = p.getPosition();
+
+                    switch (map.getTileType(pos.getX(), pos.getY())) {
+                        case TREASURE:
+                            System.out.println("Player " + p.getID() + " landed on the treasure!");
+                            winners.add(p);
+                            break;
+                        case GRASS:
+                            System.out.println("Player " + p.getID() + " landed on grass!");
+                            break;
+                        case WATER:
+                            System.out.println("Player " + p.getID() + " landed on water!");
+                            p.backToStartPosition();
+                            break;
+                    }
+                }
+                flushTeams();
+            } while (winners.size() == 0);
 
-        // Generate files so that final moves shown
-        generateHTMLFiles();
+            // Generate files so that final moves shown
+            generateHTMLFiles();
+        } finally {
+            // The files of the last turn are written even if the game stopped early
+            finishHTMLFiles();
+        }
 
         // At least one player landed on the treasure
         System.out.println("\nWINNERS");
@@ -203,6 +271,31 @@ public class Game {
         map = null;
     }
 
+    /**
+     * Helper used to reveal the positions buffered by the teams in batched mode.
+     */
+    private void flushTeams() {
+        if (teams != null) {
+            for (final Team t : teams) {
+                t.flush();
+            }
+        }
+    }
+
+    /**
+     * Helper used to end the turn of every player and team.
+     */
+    private void endTurn() {
+        for (final Player p : players) {
+            p.endTurn();
+        }
+        if (teams != null) {
+            for (final Team t : teams) {
+                t.endTurn();
+            }
+        }
+    }
+
     private void setCollaborativeMode() {
 
         // Minimum and maximum teams, and a range in string form
@@ -268,13 +361,11 @@ public class Game {
         int input;
 
         while (true) {
-            System.out.println("Type of the map? 0 - Safe, 1 - Hazardous");
+            System.out.println("Type of the map? 0 - Safe, 1 - Hazardous, 2 - Lakes, 3 - Rivers, 4 - Island");
             input = getValidInt();
 
-            if (input == 0) {
-                return MapCreator.MAP_TYPE.SAFE_MAP;
-            } else if (input == 1) {
-                return MapCreator.MAP_TYPE.HAZARDOUS_MAP;
+            if (input >= 0 && input < MapCreator.MAP_TYPE.values().length) {
+                return MapCreator.MAP_TYPE.values()[input];
             } else {
                 System.out.println("The input number was invalid.");
             }
@@ -282,30 +373,65 @@ public class Game {
     }
 
     /**
-     * Generates the HTML Files to all players with respect to their current map.
+     * Generates the HTML Files to all players with respect to their current map. The map and
+     * the players are read once, into a snapshot of the turn, from which every file is created.
      */
     private void generateHTMLFiles() {
 
-        String gitIgnore;
-        File playerFile;
-
+        String gitIgnore = null;
         try {
-            // .gitignore is still needed in the directory, thus re-write it after
-            // cleaning the directory
-            gitIgnore = FileUtils.readFileToString(GitIgnoreLocation);
-            FileUtils.cleanDirectory(new File(playersMapLocation));
-            FileUtils.writeStringToFile(GitIgnoreLocation, gitIgnore);
-            for (final Player player : players) {
-                final String team = player.getTeam() == null ? "" : "_team_" + player.getTeam().getID();
-                playerFile = new File(playersMapLocation + "map" + team + "_player_" + player.getID() + ".html");
-                FileUtils.copyFile(HTMLTemplateLocation, playerFile);
-                new HTMLGenerator(playerFile, map, player);
+            // Cleaned on the first turn only, since the files of a turn may still be written
+            if (!directoryCleaned) {
+                // .gitignore is still needed in the directory (if there is one), thus re-write
+                // it after cleaning the directory
+                if (GitIgnoreLocation.exists()) {
+                    gitIgnore = FileUtils.readFileToString(GitIgnoreLocation);
+                }
+                FileUtils.forceMkdir(playersMapLocation);
+                FileUtils.cleanDirectory(playersMapLocation);
+                if (gitIgnore != null) {
+                    FileUtils.writeStringToFile(GitIgnoreLocation, gitIgnore);
+                }
+                directoryCleaned = true;
+            }
+            // The template is kept in memory and the files of the players are written in parallel
+            if (htmlRenderer == null) {
+                if (htmlTemplate == null) {
+                    htmlTemplate = new HTMLTemplate(HTMLTemplateLocation);
+                }
+                htmlRenderer = new HTMLFileRenderer(playersMapLocation, htmlTemplate,
+                        Math.min(renderThreads, players.length));
+                if (asyncOutput) {
+                    htmlOutput = new HTMLOutputStage(htmlRenderer);
+                }
+            }
+            // The snapshot is taken by the game, writing it is left to the stage if there is one
+            final TurnSnapshot snapshot = new TurnSnapshot(map, players);
+            if (htmlOutput != null) {
+                htmlOutput.submit(snapshot, !incrementalOutput);
+            } else {
+                htmlRenderer.render(snapshot, !incrementalOutput);
             }
         } catch (IOException e) {
             System.out.print(e.getMessage());
         }
     }
 
+    /**
+     * Waits until the HTML files of the last turn are written, and stops the threads writing
+     * them, at the end of a game.
+     */
+    private void finishHTMLFiles() {
+        if (htmlOutput != null) {
+            htmlOutput.shutdown();
+            htmlOutput = null;
+        } else if (htmlRenderer != null) {
+            htmlRenderer.shutdown();
+        }
+        htmlRenderer = null;
+        directoryCleaned = false;
+    }
+
     /**
      * Helper method that loops until the input is a valid integer.
      *
@@ -364,28 +490,28 @@ public class Game {
      * @return False if a movement in the specified direction makes the player go out of
      * the map bounds, or otherwise the return value of the setPosition(...) method.
      */
-    private boolean verifyDirectionAndMove(final Player player, final MOVE_DIRECTION dir) {
+    boolean verifyDirectionAndMove(final Player player, final MOVE_DIRECTION dir) {
 
         final Position pos = player.getPosition();
         switch (dir) {
             case UP:
                 if (pos.getY() > 0) {
-                    return player.setPosition(new Position(pos.getX(), pos.getY() - 1));
+                    return player.setPosition(Position.valueOf(pos.getX(), pos.getY() - 1));
                 }
                 break;
             case DOWN:
-                if (pos.getY() < Map.getSize() - 1) {
-                    return player.setPosition(new Position(pos.getX(), pos.getY() + 1));
+                if (pos.getY() < map.getSize() - 1) {
+                    return player.setPosition(Position.valueOf(pos.getX(), pos.getY() + 1));
                 }
                 break;
             case LEFT:
                 if (pos.getX() > 0) {
-                    return player.setPosition(new Position(pos.getX() - 1, pos.getY()));
+                    return player.setPosition(Position.valueOf(pos.getX() - 1, pos.getY()));
                 }
                 break;
             case RIGHT:
-                if (pos.getX() < Map.getSize() - 1) {
-                    return player.setPosition(new Position(pos.getX() + 1, pos.getY()));
+                if (pos.getX() < map.getSize() - 1) {
+                    return player.setPosition(Position.valueOf(pos.getX() + 1, pos.getY()));
                 }
                 break;
         }
@@ -393,6 +519,58 @@ public class Game {
         return false;
     }
 
+    /**
+     * Sets the pool from which the map is taken during setup, if one of the chosen type
+     * and size is ready.
+     *
+     * @param mapPool The pool of maps, or null to always generate the map.
+     */
+    public void setMapPool(final MapPool mapPool) {
+        this.mapPool = mapPool;
+    }
+
+    /**
+     * Sets whether the HTML files are written by a background stage, so that the game does
+     * not wait for them to be written. The files of the last turn are always written by the
+     * time startGame() returns.
+     *
+     * @param asyncOutput True to write the files in the background.
+     */
+    public void setAsyncOutput(final boolean asyncOutput) {
+        this.asyncOutput = asyncOutput;
+    }
+
+    /**
+     * Sets the largest number of HTML files written at once, one per player.
+     *
+     * @param renderThreads Number of threads writing the files, 1 to write them one by one.
+     */
+    public void setRenderThreads(final int renderThreads) {
+        this.renderThreads = Math.max(1, renderThreads);
+    }
+
+    /**
+     * Sets whether the HTML files are written incrementally. In incremental mode the files
+     * are written in full on the first turn only, and on every turn after that a short script
+     * with the cells that changed is appended to them, which the page applies when loaded.
+     *
+     * @param incrementalOutput True to write the files incrementally.
+     */
+    public void setIncrementalOutput(final boolean incrementalOutput) {
+        this.incrementalOutput = incrementalOutput;
+    }
+
+    /**
+     * Sets how the teams share the positions of their players in collaborative mode. In
+     * batched mode the positions are revealed to the team once per turn, after all the
+     * players moved.
+     *
+     * @param teamSyncMode Sync mode of the teams created during setup.
+     */
+    public void setTeamSyncMode(final Team.SYNC_MODE teamSyncMode) {
+        this.teamSyncMode = teamSyncMode;
+    }
+
     /**
      * Returns the players array.
      *
@@ -0,0 +1,34 @@
+import java.util.Random;
+
+/**
+ * One step of a {@link GeneratorPipeline}. A stage sees the map one row at a time, from
+ * the top row to the bottom one, and changes the tiles of the row in place. Every row
+ * goes through all the stages before the next row is started, so a stage can only keep
+ * what it needs from the rows above it and must not expect to see a row twice.
+ */
+public interface GenerationStage {
+
+    /**
+     * Called once before the first row, with the Random of the map so that seeded maps
+     * are generated the same way every time.
+     *
+     * @param size: Width and height of the map in tiles.
+     * @param rand: Random of the map, shared by all the stages.
+     */
+    void start(final int size, final Random rand);
+
+    /**
+     * Changes the tiles of a row in place.
+     *
+     * @param y: The y-coordinate of the row.
+     * @param row: The tiles of the row, indexed by x-coordinate.
+     */
+    void transformRow(final int y, final Map.TILE_TYPE[] row);
+
+    /**
+     * Called once all the rows were written to the tiles of the map.
+     *
+     * @param tiles: The tiles of the map.
+     */
+    void finish(final TileStorage tiles);
+}
@@ -0,0 +1,62 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the tiles of a map by passing every row, starting as Grass, through a list of
+ * {@link GenerationStage}s and writing it out once. The tiles are therefore read and
+ * written in a single pass from the top left tile to the bottom right one, whatever the
+ * stages do. Stages keep state while generating, so a pipeline generates one map at a time.
+ */
+public class GeneratorPipeline {
+
+    private final List<GenerationStage> stages = new ArrayList<GenerationStage>();
+
+    /**
+     * Adds a stage after the stages added before it.
+     *
+     * @param stage: The stage to add.
+     * @return This pipeline, so that stages can be chained.
+     */
+    public GeneratorPipeline add(final GenerationStage stage) {
+        stages.add(stage);
+        return this;
+    }
+
+    /**
+     * Returns the stages of the pipeline in the order they are applied.
+     *
+     * @return The stages of the pipeline.
+     */
+    public List<GenerationStage> getStages() {
+        return stages;
+    }
+
+    /**
+     * Generates every tile of a map.
+     *
+     * @param tiles: Where the tiles are written.
+     * @param size: Width and height of the map in tiles.
+     * @param rand: Random of the map, passed to every stage.
+     */
+    public void generate(final TileStorage tiles, final int size, final Random rand) {
+        final Map.TILE_TYPE[] row = new Map.TILE_TYPE[size];
+
+        for (final GenerationStage stage : stages) {
+            stage.start(size, rand);
+        }
+        for (int y = 0; y < size; y++) {
+            Arrays.fill(row, Map.TILE_TYPE.GRASS);
+            for (final GenerationStage stage : stages) {
+                stage.transformRow(y, row);
+            }
+            for (int x = 0; x < size; x++) {
+                tiles.setTile(x, y, row[x]);
+            }
+        }
+        for (final GenerationStage stage : stages) {
+            stage.finish(tiles);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the HTML files of the players of a {@link TurnSnapshot}, one file per player, in
+ * parallel on a bounded number of threads. Since a snapshot never changes, the files are
+ * rendered from it without any locking. A file that cannot be written is reported on its
+ * own and does not stop the files of the other players. It is written in full the next
+ * time, since changes appended to it could be missing the page. The threads are daemon
+ * threads, and stop after being idle for a while, so a renderer that is not shut down does
+ * not keep them.
+ */
+public class HTMLFileRenderer {
+
+    private static final long IDLE_THREAD_SECONDS = 5;
+
+    private final File directory;
+    private final HTMLTemplate template;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Whether the file of every player, by index, was written in full and had every change
+     * since appended to it. Only used by the thread calling render(...).
+     */
+    private boolean[] complete = new boolean[0];
+
+    /**
+     * @param directory: Directory in which the files of the players are written.
+     * @param template: The HTML template of the files.
+     * @param threads: Largest number of files written at once, 1 to write them on the
+     *                 calling thread.
+     */
+    public HTMLFileRenderer(final File directory, final HTMLTemplate template, final int threads) {
+        this.directory = directory;
+        this.template = template;
+        if (threads <= 1) {
+            this.executor = null;
+        } else {
+            this.executor = new ThreadPoolExecutor(threads, threads, IDLE_THREAD_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "html-renderer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /**
+     * Writes the file of every player of the snapshot and waits until all of them are
+     * written. In full mode every file is written from the template, otherwise only the
+     * cells that changed during the turn are appended to the files written before. The
+     * files which were never written in full, or which could not be written last time, are
+     * always written in full.
+     *
+     * @param snapshot: The snapshot of the turn.
+     * @param full: True to write the files in full, false to append the changes.
+     * @return Number of files that could not be written.
+     */
+    public int render(final TurnSnapshot snapshot, final boolean full) {
+        boolean rendered = false;
+
+        if (complete.length < snapshot.getPlayerCount()) {
+            complete = Arrays.copyOf(complete, snapshot.getPlayerCount());
+        }
+        try {
+            final int failed = renderAll(snapshot, full);
+            rendered = true;
+            return failed;
+        } finally {
+            // Thrown out of the middle of a turn, so any file may be missing its changes
+            if (!rendered) {
+                Arrays.fill(complete, false);
+            }
+        }
+    }
+
+    /**
+     * Helper method for render(...), writing the files of the players.
+     */
+    private int renderAll(final TurnSnapshot snapshot, final boolean full) {
+        final int players = snapshot.getPlayerCount();
+        int failed = 0;
+
+        if (executor == null || players == 1) {
+            for (int i = 0; i < players; i++) {
+                try {
+                    renderPlayer(snapshot, i, full || !complete[i]);
+                    complete[i] = true;
+                } catch (IOException e) {
+                    report(snapshot, i, e);
+                    complete[i] = false;
+                    failed++;
+                }
+            }
+            return failed;
+        }
+
+        final List<Future<Void>> results = new ArrayList<Future<Void>>(players);
+        for (int i = 0; i < players; i++) {
+            final int player = i;
+            final boolean playerFull = full || !complete[i];
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    renderPlayer(snapshot, player, playerFull);
+                    return null;
+                }
+            }));
+        }
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                results.get(i).get();
+                complete[i] = true;
+            } catch (ExecutionException e) {
+                report(snapshot, i, e.getCause());
+                complete[i] = false;
+                failed++;
+            } catch (InterruptedException e) {
+                // Stop waiting, the files not written yet are given up
+                for (int j = i; j < results.size(); j++) {
+                    results.get(j).cancel(true);
+                    complete[j] = false;
+                }
+                Thread.currentThread().interrupt();
+                return failed + results.size() - i;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Returns the file of one of the players of a snapshot.
+     *
+     * @param snapshot: The snapshot of the turn.
+     * @param player: The index in the snapshot of the player.
+     * @return The file of the player.
+     */
+    public File getFile(final TurnSnapshot snapshot, final int player) {
+        final int teamID = snapshot.getTeamID(player);
+        final String team = teamID == TurnSnapshot.NO_TEAM ? "" : "_team_" + teamID;
+        return new File(directory, "map" + team + "_player_" + snapshot.getPlayerID(player) + ".html");
+    }
+
+    /**
+     * Stops the threads, once the files being written are written.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Reports that the file of one player could not be written.
+     */
+    private void report(final TurnSnapshot snapshot, final int player, final Throwable cause) {
+        System.out.println("The HTML file of player " + snapshot.getPlayerID(player)
+                + " could not be written: " + cause.getMessage());
+    }
+
+    /**
+     * Writes or appends to the file of one player.
+     */
+    private void renderPlayer(final TurnSnapshot snapshot, final int player, final boolean full) throws IOException {
+        final OutputStream out = new BufferedOutputStream(new FileOutputStream(getFile(snapshot, player), !full));
+
+        try {
+            if (full) {
+                new HTMLGenerator(out, template, snapshot, player);
+            } else {
+                final Writer delta = new OutputStreamWriter(out, template.getCharset());
+                HTMLGenerator.writeDelta(delta, snapshot, player);
+                delta.flush();
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -1,11 +1,16 @@
-import exceptions.PositionIsOutOfRange;
 import org.apache.commons.io.FileUtils;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 /**
- * Generate HTML code for the specific map and outputs it in resources/players-maps.
+ * Generate HTML code for the specific map and outputs it in resources/players-maps. The
+ * table is created from a {@link TurnSnapshot} only, so it can be created on any thread.
  *
  * @author Dylan Frendo.
  */
@@ -52,73 +57,216 @@ public class HTMLGenerator {
      * @throws IOException: File location specific is not correct.
      */
     HTMLGenerator(final File outputLocation, final Map map, final Player player) throws IOException {
-        writeOnFile(outputLocation, createTable(map, player));
+        this(outputLocation, new TurnSnapshot(map, new Player[]{player}), 0);
     }
 
     /**
-     * Reads to contents of the specified file and replace $Table found in the file with
+     * Constructor calls the required methods to write on files, for one of the players of a
+     * snapshot. Inputted file location requires $Table tag to have correct output.
+     *
+     * @param outputLocation: File location where the contents of the file will be read and updated.
+     * @param snapshot: The snapshot of the turn that will be printed.
+     * @param player: The index in the snapshot of the player that needs it's map to be printed.
+     * @throws IOException: File location specific is not correct.
+     */
+    HTMLGenerator(final File outputLocation, final TurnSnapshot snapshot, final int player) throws IOException {
+        writeOnFile(outputLocation, snapshot, player);
+    }
+
+    /**
+     * Constructor that streams the page of one of the players of a snapshot to the given
+     * writer in one pass: the part of the template before $Table, the table, and the part
+     * after it. The writer is flushed but not closed.
+     *
+     * @param out: Where the page is written, ideally buffered.
+     * @param template: The contents of the HTML template, with a $Table tag.
+     * @param snapshot: The snapshot of the turn that will be printed.
+     * @param player: The index in the snapshot of the player that needs it's map to be printed.
+     * @throws IOException: The page could not be written.
+     */
+    HTMLGenerator(final Writer out, final String template, final TurnSnapshot snapshot, final int player)
+            throws IOException {
+        writePage(out, template, snapshot, player);
+    }
+
+    /**
+     * Constructor that streams the page of one of the players of a snapshot to the given
+     * stream in one pass, from a template kept in memory: the encoded part of the template
+     * before $Table, the table, and the encoded part after it. The stream is flushed but
+     * not closed.
+     *
+     * @param out: Where the page is written, ideally buffered.
+     * @param template: The HTML template, with a $Table tag.
+     * @param snapshot: The snapshot of the turn that will be printed.
+     * @param player: The index in the snapshot of the player that needs it's map to be printed.
+     * @throws IOException: The page could not be written, or the template could not be read.
+     */
+    HTMLGenerator(final OutputStream out, final HTMLTemplate template, final TurnSnapshot snapshot, final int player)
+            throws IOException {
+        final HTMLTemplate.Compiled compiled = template.get();
+
+        out.write(compiled.prefix);
+        if (compiled.hasTable) {
+            final Writer table = new OutputStreamWriter(out, template.getCharset());
+            writeTable(table, snapshot, player);
+            table.flush();
+        }
+        out.write(compiled.suffix);
+        out.flush();
+    }
+
+    /**
+     * Reads to contents of the specified file and writes it back with $Table replaced by
      * the html contents of the table. $Table is required for proper output.
      *
      * @param fileLocation: The file location where the contents will be read and updated.
-     * @param table: A String containing the contents of the table.
+     * @param snapshot: The snapshot of the turn.
+     * @param player: The index in the snapshot of the player that the file is generated for.
      * @throws IOException: File specified was not found.
      */
-    private void writeOnFile(final File fileLocation, final String table) throws IOException {
-        String htmlTemplate = FileUtils.readFileToString(fileLocation);
-        htmlTemplate = htmlTemplate.replace("$Table", table);
-        FileUtils.writeStringToFile(fileLocation, htmlTemplate);
+    private void writeOnFile(final File fileLocation, final TurnSnapshot snapshot, final int player) throws IOException {
+        final String htmlTemplate = FileUtils.readFileToString(fileLocation);
+        final Writer out = new BufferedWriter(new FileWriter(fileLocation));
+
+        try {
+            writePage(out, htmlTemplate, snapshot, player);
+        } finally {
+            out.close();
+        }
     }
 
     /**
-     * Create a String containing the rows and their cells in HTML format for the entire map. The css class
+     * Writes the template with the table in place of $Table, without building the page in
+     * memory. The template is written as is if it has no $Table tag.
+     *
+     * @param out: Where the page is written.
+     * @param template: The contents of the HTML template.
+     * @param snapshot: The snapshot of the turn.
+     * @param player: The index in the snapshot of the player that the file is generated for.
+     * @throws IOException: The page could not be written.
+     */
+    private void writePage(final Writer out, final String template, final TurnSnapshot snapshot, final int player)
+            throws IOException {
+        final int tag = template.indexOf(HTMLTemplate.TABLE_TAG);
+        final int end = tag + HTMLTemplate.TABLE_TAG.length();
+
+        if (tag < 0) {
+            out.write(template);
+        } else {
+            out.write(template, 0, tag);
+            writeTable(out, snapshot, player);
+            out.write(template, end, template.length() - end);
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the rows and their cells in HTML format for the entire map. The css class
      * for each cell depends on the Tile, got found x, y coordinates of the map. An Image tag is inserted
      * in the ceil tag if the player is currently on the Tile.
      *
-     * @param map: The map given converted to HTML format.
-     * @param player: The player that the file is generated for.
-     * @return String containing the rows and their cells in HTML format.
+     * @param out: Where the table is written.
+     * @param snapshot: The snapshot of the turn converted to HTML format.
+     * @param player: The index in the snapshot of the player that the file is generated for.
+     * @throws IOException: The table could not be written.
      */
-    private String createTable(final Map map, final Player player) {
-        final int mapSize = Map.getSize();
-        int x, y;
-        final StringBuilder table = new StringBuilder();
-        table.append(createCaption(player));
+    private void writeTable(final Writer out, final TurnSnapshot snapshot, final int player) throws IOException {
+        final int mapSize = snapshot.getSize();
+        final int x = snapshot.getX(player), y = snapshot.getY(player);
+        out.write(createCaption(snapshot, player));
 
         for (int i = 0; i < mapSize; i++) {
-            table.append(TAB_FOR_ROW);
-            table.append("<tr>\n");
+            out.write(TAB_FOR_ROW);
+            out.write("<tr>\n");
             for (int j = 0; j < mapSize; j++) {
-                x = player.getPosition().getX();
-                y = player.getPosition().getY();
-
-                try {
-                    if (x == j && y == i) {
-                        table.append(determineCellType(map.getTileType(j, i), true));
-                    } else if (player.wasVisited(j, i)) {
-                        table.append(determineCellType(map.getTileType(j, i), false));
-                    } else {
-                        table.append(IDLE_CELL);
-                    }
-                } catch (PositionIsOutOfRange positionIsOutOfRange) {
-                    // Create Table loop is incorrect.
-                    System.out.println(positionIsOutOfRange.getMessage());
+                if (x == j && y == i) {
+                    out.write(determineCellType(snapshot.getTile(j, i), true));
+                } else if (snapshot.isRevealed(player, j, i)) {
+                    out.write(determineCellType(snapshot.getTile(j, i), false));
+                } else {
+                    out.write(IDLE_CELL);
                 }
             }
-            table.append(TAB_FOR_ROW);
-            table.append("</tr>\n");
+            out.write(TAB_FOR_ROW);
+            out.write("</tr>\n");
         }
-        return table.toString();
     }
 
     /**
      * Prints the caption (Header) of the table. It consists of "Player n" where n is the player ID.
      *
-     * @param player: The player that the file is generated for.
+     * @param snapshot: The snapshot of the turn.
+     * @param player: The index in the snapshot of the player that the file is generated for.
      * @return String containing the caption.
      */
-    private String createCaption(final Player player) {
-        final String team = player.getTeam() == null ? "" : " (Team " + player.getTeam().getID() + ")";
-        return "<caption class=\"playerNumber\">Player " + player.getID() + team + "</caption>\n";
+    private String createCaption(final TurnSnapshot snapshot, final int player) {
+        final int teamID = snapshot.getTeamID(player);
+        final String team = teamID == TurnSnapshot.NO_TEAM ? "" : " (Team " + teamID + ")";
+        return "<caption class=\"playerNumber\">Player " + snapshot.getPlayerID(player) + team + "</caption>\n";
+    }
+
+    /**
+     * Writes a script updating the cells that changed for one of the players of a snapshot
+     * during the turn: the cells revealed during the turn, the cell the player left, and the
+     * cell the player is on. It is appended to a page written before, whose applyDelta(...)
+     * function applies it, so that the size of the script grows with the moves rather than
+     * with the size of the map. Nothing is written if nothing changed.
+     *
+     * @param out: Where the script is written.
+     * @param snapshot: The snapshot of the turn.
+     * @param player: The index in the snapshot of the player that the page is for.
+     * @throws IOException: The script could not be written.
+     */
+    static void writeDelta(final Writer out, final TurnSnapshot snapshot, final int player) throws IOException {
+        final int x = snapshot.getX(player), y = snapshot.getY(player);
+        final int previousX = snapshot.getPreviousX(player), previousY = snapshot.getPreviousY(player);
+        final int count = snapshot.getTurnRevealedCount(player);
+
+        if (count == 0 && x == previousX && y == previousY) {
+            return;
+        }
+        out.write("<script>applyDelta([");
+        for (int i = 0; i < count; i++) {
+            writeDeltaCell(out, snapshot, player, snapshot.getTurnRevealedX(player, i), snapshot.getTurnRevealedY(player, i));
+            out.write(',');
+        }
+        // The cell of the player is last, so that the player is drawn on it
+        writeDeltaCell(out, snapshot, player, previousX, previousY);
+        out.write(',');
+        writeDeltaCell(out, snapshot, player, x, y);
+        out.write("]);</script>\n");
+    }
+
+    /**
+     * Writes one cell of a delta: [x, y, class of the cell, 1 if the player is on it].
+     */
+    private static void writeDeltaCell(final Writer out, final TurnSnapshot snapshot, final int player,
+                                       final int x, final int y) throws IOException {
+        final boolean playerIsOnTile = snapshot.getX(player) == x && snapshot.getY(player) == y;
+        final String cellClass;
+
+        if (!playerIsOnTile && !snapshot.isRevealed(player, x, y)) {
+            cellClass = "notDiscoveredCell";
+        } else {
+            switch (snapshot.getTile(x, y)) {
+                case WATER:
+                    cellClass = "waterCell";
+                    break;
+                case TREASURE:
+                    cellClass = "treasureCell";
+                    break;
+                default:
+                    cellClass = "grassCell";
+                    break;
+            }
+        }
+        out.write('[');
+        out.write(Integer.toString(x));
+        out.write(',');
+        out.write(Integer.toString(y));
+        out.write(",\"");
+        out.write(cellClass);
+        out.write(playerIsOnTile ? "\",1]" : "\",0]");
     }
 
     /**
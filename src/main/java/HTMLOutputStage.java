@@ -0,0 +1,170 @@
+/**
+ * Writes the HTML files of the players on a background thread, so that the game does not
+ * wait for the disk. Every turn the game hands over the snapshot of the turn, and the stage
+ * writes it through a {@link HTMLFileRenderer} while the game goes on with the next turn.
+ * <p>
+ * At most one snapshot waits to be written besides the one being written, that is one frame
+ * per player. If the disk falls behind, a waiting snapshot is replaced by the newer one. A
+ * replaced frame that only held the changes of its turn cannot simply be dropped, so the
+ * newer frame is then written in full. flush() waits until everything handed over is
+ * written, which the game does when it ends so that the last turn is always written. A
+ * frame that cannot be written is reported and the stage goes on with the next one.
+ */
+public class HTMLOutputStage {
+
+    private final HTMLFileRenderer renderer;
+    private final Thread thread;
+
+    /**
+     * The snapshot waiting to be written (null if none) and whether it is written in full,
+     * whether a snapshot is being written, whether the stage was shut down, and whether the
+     * thread of the stage ended. All guarded by this.
+     */
+    private TurnSnapshot pending = null;
+    private boolean pendingFull = false;
+    private boolean writing = false;
+    private boolean stopped = false;
+    private boolean ended = false;
+    private int written = 0, coalesced = 0;
+
+    /**
+     * Starts the thread of the stage.
+     *
+     * @param renderer: Writes the files of the snapshots handed over.
+     */
+    public HTMLOutputStage(final HTMLFileRenderer renderer) {
+        this.renderer = renderer;
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeSnapshots();
+            }
+        }, "html-output");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Hands over the snapshot of a turn to be written, without waiting for it to be written.
+     * If the thread of the stage ended, the snapshot is not written.
+     *
+     * @param snapshot: The snapshot of the turn.
+     * @param full: True to write the files in full, false to append the changes of the turn.
+     * @throws IllegalStateException: The stage was shut down.
+     */
+    public synchronized void submit(final TurnSnapshot snapshot, final boolean full) {
+        if (stopped) {
+            throw new IllegalStateException("The output stage was shut down.");
+        }
+        if (ended) {
+            return;
+        }
+        if (pending != null) {
+            // The changes of the replaced turn would be lost, so write the newer one in full
+            coalesced++;
+            pendingFull = true;
+        } else {
+            pendingFull = full;
+        }
+        pending = snapshot;
+        notifyAll();
+    }
+
+    /**
+     * Waits until every snapshot handed over is written, or until the thread of the stage
+     * ended. If the calling thread is interrupted, it stops waiting and keeps its interrupt
+     * status.
+     */
+    public synchronized void flush() {
+        try {
+            while ((pending != null || writing) && !ended) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes what was handed over, then stops the thread of the stage and the renderer.
+     */
+    public void shutdown() {
+        flush();
+        synchronized (this) {
+            stopped = true;
+            notifyAll();
+        }
+        renderer.shutdown();
+    }
+
+    /**
+     * Returns the number of snapshots written.
+     *
+     * @return Number of written snapshots.
+     */
+    public synchronized int getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * Returns the number of snapshots that were replaced by a newer one before being written.
+     *
+     * @return Number of replaced snapshots.
+     */
+    public synchronized int getCoalescedCount() {
+        return coalesced;
+    }
+
+    /**
+     * Loop of the thread of the stage, writing the snapshots as they are handed over. Waiting
+     * callers are released whichever way the loop ends.
+     */
+    private void writeSnapshots() {
+        try {
+            writeLoop();
+        } finally {
+            synchronized (this) {
+                ended = true;
+                pending = null;
+                writing = false;
+                notifyAll();
+            }
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            final TurnSnapshot snapshot;
+            final boolean full;
+
+            synchronized (this) {
+                while (pending == null && !stopped) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending == null) {
+                    return;
+                }
+                snapshot = pending;
+                full = pendingFull;
+                pending = null;
+                writing = true;
+            }
+            try {
+                renderer.render(snapshot, full);
+            } catch (Throwable e) {
+                // Keep writing the next snapshots, the renderer writes what it missed in full
+                System.out.println("The HTML files of a turn could not be written: " + e);
+            } finally {
+                synchronized (this) {
+                    writing = false;
+                    written++;
+                    notifyAll();
+                }
+            }
+        }
+    }
+}
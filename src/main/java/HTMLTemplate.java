@@ -0,0 +1,112 @@
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Keeps an HTML template in memory, split at its $Table tag into the part before and the
+ * part after the tag, both already encoded so that they are written as they are. The
+ * template is read again when its file changes, which is checked through the modification
+ * time and length of the file each time the template is asked for, so a template that does
+ * not change is only read once.
+ */
+public class HTMLTemplate {
+
+    /**
+     * The tag of the template replaced by the table.
+     */
+    static final String TABLE_TAG = "$Table";
+
+    /**
+     * A template as read at one point in time. The arrays are shared and must not be
+     * changed. A template without a $Table tag is entirely in the prefix.
+     */
+    static final class Compiled {
+        final byte[] prefix, suffix;
+        final boolean hasTable;
+        final long lastModified, length;
+
+        private Compiled(final byte[] prefix, final byte[] suffix, final boolean hasTable,
+                         final long lastModified, final long length) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.hasTable = hasTable;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+
+    private final File file;
+    private final Charset charset = Charset.defaultCharset();
+    private volatile Compiled compiled;
+    private int loads = 0;
+
+    /**
+     * Reads the template for the first time.
+     *
+     * @param file: The file of the HTML template.
+     * @throws IOException: The file could not be read.
+     */
+    public HTMLTemplate(final File file) throws IOException {
+        this.file = file;
+        this.compiled = load();
+    }
+
+    /**
+     * Returns the template, reading it again first if its file changed since it was read.
+     *
+     * @return The current template.
+     * @throws IOException: The file changed and could not be read.
+     */
+    Compiled get() throws IOException {
+        Compiled current = compiled;
+
+        if (file.lastModified() != current.lastModified || file.length() != current.length) {
+            synchronized (this) {
+                current = compiled;
+                if (file.lastModified() != current.lastModified || file.length() != current.length) {
+                    current = load();
+                    compiled = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the charset in which the template is encoded, which is also the one in which
+     * the table is to be written.
+     *
+     * @return Charset of the template.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Returns the number of times the file of the template was read.
+     *
+     * @return Number of reads.
+     */
+    public synchronized int getLoadCount() {
+        return loads;
+    }
+
+    /**
+     * Reads and splits the file. The modification time and length are taken before reading,
+     * so that a change made while reading is picked up the next time.
+     */
+    private synchronized Compiled load() throws IOException {
+        final long lastModified = file.lastModified(), length = file.length();
+        final String template = FileUtils.readFileToString(file, charset.name());
+        final int tag = template.indexOf(TABLE_TAG);
+
+        loads++;
+        if (tag < 0) {
+            return new Compiled(template.getBytes(charset), new byte[0], false, lastModified, length);
+        }
+        return new Compiled(template.substring(0, tag).getBytes(charset),
+                template.substring(tag + TABLE_TAG.length()).getBytes(charset), true, lastModified, length);
+    }
+}
@@ -0,0 +1,45 @@
+import java.util.Random;
+
+/**
+ * Surrounds the map with sea, leaving an island in the middle. A tile is Water when it is
+ * closer to the edge of the map than the shore, whose distance from the edge changes with
+ * the noise of {@link NoiseLakesStage} so that the coast is not a straight line.
+ */
+public class IslandStage implements GenerationStage {
+
+    private final int shorePercentage;
+    private long seed;
+    private int scale;
+    private double shore;
+
+    /**
+     * @param shorePercentage: Average distance of the shore from the edge of the map, as a
+     *                         percentage of half the size of the map.
+     */
+    public IslandStage(final int shorePercentage) {
+        this.shorePercentage = shorePercentage;
+    }
+
+    @Override
+    public void start(final int size, final Random rand) {
+        seed = rand.nextLong();
+        scale = Math.max(2, size / 4);
+        shore = size / 2.0 * shorePercentage / 100;
+    }
+
+    @Override
+    public void transformRow(final int y, final Map.TILE_TYPE[] row) {
+        final int fromTopOrBottom = Math.min(y, row.length - 1 - y);
+
+        for (int x = 0; x < row.length; x++) {
+            final int fromEdge = Math.min(fromTopOrBottom, Math.min(x, row.length - 1 - x));
+            if (fromEdge < shore * (0.5 + NoiseLakesStage.height(seed, x, y, scale))) {
+                row[x] = Map.TILE_TYPE.WATER;
+            }
+        }
+    }
+
+    @Override
+    public void finish(final TileStorage tiles) {
+    }
+}
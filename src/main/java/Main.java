@@ -6,7 +6,14 @@ public class Main {
     public static void main(String args[]) throws Exception {
 
         final Game game = new Game();
+        final MapPool mapPool = new MapPool(1, 1);
+
+        // Generate the largest maps while the players answer the prompts
+        mapPool.warm(MapCreator.MAP_TYPE.SAFE_MAP, Map.MAX_MAP_SIZE);
+        mapPool.warm(MapCreator.MAP_TYPE.HAZARDOUS_MAP, Map.MAX_MAP_SIZE);
+        game.setMapPool(mapPool);
         game.setup();
+        mapPool.shutdown();
         game.startGame();
     }
 }
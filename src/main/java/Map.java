@@ -1,24 +1,39 @@
-import exceptions.MapWasAlreadyInitialized;
+import exceptions.DistanceFieldWasNotComputed;
+import exceptions.MapFileWasNotAccessible;
+import exceptions.MapGenerationWasInterrupted;
+import exceptions.NotEnoughGrassTiles;
 import exceptions.PositionIsOutOfRange;
 import exceptions.SizeOfMapWasNotSet;
 
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Create a randomized squared map consisting of Grass, Water and Treasure tiles
- * and sets the initially player position to start from a Grass tile.
+ * and sets the initially player position to start from a Grass tile. Every game
+ * has its own map, so any number of maps can exist at the same time.
  *
  * @author Dylan Frendo.
  */
 public abstract class Map {
 
-    private static Map instance = null;
-
     /**
      * GRASS: Players are allowed to walk on Grass tiles.
      * WATER: If a player moves to a water tile, the player resets to the
      * initial starting position. (Discovered tiles are still shown).
      * TREASURE: Player wins game.
+     *
+     * The declaration order is relied upon by {@link PackedTileStorage}, where
+     * GRASS must stay first so that a newly allocated storage is all Grass.
      */
     public enum TILE_TYPE {
         GRASS,
@@ -26,8 +41,92 @@ public abstract class Map {
         TREASURE
     }
 
-    static int size;
-    TILE_TYPE[][] map;
+    /**
+     * The tile types by ordinal, for the storages which keep ordinals instead of tile types.
+     * Kept since values() returns a new array on every call.
+     */
+    static final TILE_TYPE[] TILE_TYPES = TILE_TYPE.values();
+
+    /**
+     * Maximum size of a map that is generated in full, of a map that is split in chunks
+     * which are generated the first time they are needed, and of a map stored in a file.
+     */
+    static final int MAX_MAP_SIZE = 50;
+    static final int MAX_CHUNKED_MAP_SIZE = 1000000;
+    static final int MAX_MAPPED_MAP_SIZE = 1000000;
+    static final int CHUNK_SIZE = 256;
+
+    /**
+     * Number of rows in each region of a map generated in full. A multiple of 32 so that
+     * every region starts on a new word of {@link PackedTileStorage}.
+     */
+    static final int REGION_ROWS = 32;
+
+    /**
+     * Largest map for which the distances to the treasure are kept (one int per tile), lower
+     * for mapped maps since the field and its search are on the heap, and the percentage of
+     * the Grass tiles from which the treasure must be reachable.
+     */
+    static final int MAX_DISTANCE_FIELD_SIZE = 4096;
+    static final int MAX_MAPPED_DISTANCE_FIELD_SIZE = 1024;
+    static final int MIN_REACHABLE_GRASS_PERCENTAGE = 50;
+
+    /**
+     * Number of random tiles tried for every player on a map without an index of the spawn
+     * tiles, before giving up on finding a Grass tile.
+     */
+    static final int MAX_SPAWN_ATTEMPTS = 1 << 16;
+
+    /**
+     * Distance given to the Water tiles bordering the tiles reached while repairing a map.
+     */
+    private static final int ON_BORDER = -2;
+
+    int size;
+    TileStorage tiles;
+
+    /**
+     * Chunked mode and the seed from which every chunk is generated.
+     */
+    private boolean chunked = false;
+    private long seed;
+
+    /**
+     * Seeded mode, in which a map generated in full is also generated from the seed,
+     * and the number of threads generating its regions.
+     */
+    private boolean seeded = false;
+    private int generationThreads = 1;
+
+    /**
+     * File holding the tiles in mapped mode, null otherwise.
+     */
+    private File mappedFile = null;
+
+    /**
+     * Distance (in moves over Grass) from every tile to the treasure, -1 if the treasure
+     * cannot be reached from the tile, and the number of Grass tiles that can reach it.
+     */
+    private int[] distances = null;
+    private int reachableGrassTiles = 0;
+
+    /**
+     * Index (y * size + x) of every tile a player can spawn on, built together with the
+     * distances, and the Random used to pick them.
+     */
+    private int[] spawnTiles = null;
+    private final Random spawnRand = new Random();
+
+    /**
+     * Which players stand on which tiles, created with getOccupancy().
+     */
+    private Occupancy occupancy = null;
+
+    /**
+     * Ordinal of the type of every tile, row by row (y * size + x), created with
+     * getTileOrdinals() and dropped whenever the tiles are replaced.
+     */
+    private volatile byte[] tileOrdinals = null;
 
     /**
      * Set the size of the Map. The size of the map can only be set once. The minimum
@@ -35,7 +134,7 @@ public abstract class Map {
      *
      * 2-4 players (inclusive) minimum map size is 5.
      * 5-8 players (inclusive) minimum map size is 8.
-     * Maximum size for both cases is 50.
+     * Maximum size for both cases is 50, or 1,000,000 in chunked and mapped mode.
      *
      * @param x: The width in tiles of the map.
      * @param y: The height in tiles of the map, needs to be the same value as x.
@@ -45,7 +144,6 @@ public abstract class Map {
     public boolean setMapSize(final int x, final int y, final int numberOfPlayers) {
         final int MIN_MAP_SIZE_FOR_2_TO_4_PLAYERS = 5;
         final int MIN_MAP_SIZE_FOR_5_TO_8_PLAYERS = 8;
-        final int MAX_MAP_SIZE = 50;
 
         // Map should be squared.
         if (x != y) {
@@ -53,7 +151,7 @@ public abstract class Map {
         } else if (size != 0) {
             // Size can only be changed once since once the game is played, it will exits.
             return false;
-        } else if (x < MIN_MAP_SIZE_FOR_2_TO_4_PLAYERS || x > MAX_MAP_SIZE) {
+        } else if (x < MIN_MAP_SIZE_FOR_2_TO_4_PLAYERS || x > getMaxMapSize()) {
             return false;
         } else if (numberOfPlayers >= 2 && numberOfPlayers <= 4) {
             size = x;
@@ -83,67 +181,713 @@ public abstract class Map {
         if ((x < 0 || x >= size) || (y < 0 || y >= size)) {
             throw new PositionIsOutOfRange(x, y);
         }
-        return map[x][y];
+        return tiles.getTile(x, y);
     }
 
     /**
-     * Sets the initial starting position for player to a Green Tile.
+     * Sets the initial starting position for player to a Green Tile from which the
+     * treasure can be reached (if the distances to the treasure were computed). The player
+     * is also bound to this map, since the player needs the size of the map.
      *
      * @param player: Player to set the initial Position.
      * @throws PositionIsOutOfRange: The x, y coordinates generated are incorrect.
      * @throws SizeOfMapWasNotSet: Size of map was not beforehand.
+     * @throws NotEnoughGrassTiles: No Green Tile was found.
+     */
+    public void setInitialPlayerPosition(final Player player)
+            throws PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        final long tile = pickSpawnTile();
+
+        player.setMap(this);
+        player.setPosition(Position.valueOf(tile));
+    }
+
+    /**
+     * Picks a random Green Tile from which the treasure can be reached (if the distances to
+     * the treasure were computed). The same tile can be picked more than once.
+     *
+     * @return The picked tile, packed using Position.pack(...).
+     * @throws PositionIsOutOfRange: The x, y coordinates generated are incorrect.
+     * @throws SizeOfMapWasNotSet: Size of map was not beforehand.
+     * @throws NotEnoughGrassTiles: The map has no Green Tile, or none was found.
+     */
+    long pickSpawnTile() throws PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        if (size == 0) {
+            throw new SizeOfMapWasNotSet();
+        }
+
+        if (spawnTiles != null) {
+            if (spawnTiles.length == 0) {
+                throw new NotEnoughGrassTiles(1, 0);
+            }
+            final int tile = spawnTiles[spawnRand.nextInt(spawnTiles.length)];
+            return Position.pack(tile % size, tile / size);
+        }
+        // Chunked and large maps have no index, so guess until a Grass tile is found
+        final long tile = guessGrassTile(null);
+        if (tile < 0) {
+            throw new NotEnoughGrassTiles(1, 0, MAX_SPAWN_ATTEMPTS);
+        }
+        return tile;
+    }
+
+    /**
+     * Helper method for the maps without an index of the spawn tiles. Guesses random tiles
+     * until a Grass tile which is not in picked (if given) is found, and adds it to picked.
+     *
+     * @return The tile packed using Position.pack(...), or -1 if none was found in
+     * MAX_SPAWN_ATTEMPTS guesses.
+     */
+    private long guessGrassTile(final PositionSet picked) throws PositionIsOutOfRange {
+        for (int attempt = 0; attempt < MAX_SPAWN_ATTEMPTS; attempt++) {
+            final int x = spawnRand.nextInt(size), y = spawnRand.nextInt(size);
+
+            if (getTileType(x, y) == TILE_TYPE.GRASS && (picked == null || picked.add(x, y))) {
+                return Position.pack(x, y);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sets the initial starting positions of all the players at once, placing every player on
+     * a different Green Tile (from which the treasure can be reached, if the distances to the
+     * treasure were computed). The players are also bound to this map.
+     *
+     * @param players: Players to set the initial Position.
+     * @throws PositionIsOutOfRange: The x, y coordinates generated are incorrect.
+     * @throws SizeOfMapWasNotSet: Size of map was not beforehand.
+     * @throws NotEnoughGrassTiles: There are less Green Tiles than players, or not enough
+     * were found on a map without an index of the spawn tiles.
+     */
+    public void setInitialPlayerPositions(final Player[] players)
+            throws PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        if (size == 0) {
+            throw new SizeOfMapWasNotSet();
+        }
+
+        if (spawnTiles != null) {
+            if (players.length > spawnTiles.length) {
+                throw new NotEnoughGrassTiles(players.length, spawnTiles.length);
+            }
+            // Partial Fisher-Yates shuffle, the first tiles of the index are the picked ones
+            for (int i = 0; i < players.length; i++) {
+                final int pick = i + spawnRand.nextInt(spawnTiles.length - i);
+                final int tile = spawnTiles[pick];
+                spawnTiles[pick] = spawnTiles[i];
+                spawnTiles[i] = tile;
+
+                players[i].setMap(this);
+                players[i].setPosition(Position.valueOf(tile % size, tile / size));
+            }
+        } else {
+            if ((long) players.length > (long) size * size) {
+                throw new NotEnoughGrassTiles(players.length, 0);
+            }
+            final PositionSet picked = new PositionSet(players.length);
+            for (int i = 0; i < players.length; i++) {
+                final long tile = guessGrassTile(picked);
+                if (tile < 0) {
+                    throw new NotEnoughGrassTiles(players.length, i, MAX_SPAWN_ATTEMPTS);
+                }
+                players[i].setMap(this);
+                players[i].setPosition(Position.valueOf(tile));
+            }
+        }
+    }
+
+    /**
+     * Switches the map to chunked mode, which allows maps of up to 1,000,000 x 1,000,000 tiles.
+     * Instead of filling the whole map up front, generate() only prepares the map and every
+     * chunk is filled the first time one of its tiles is needed. Each chunk is generated from
+     * the seed and its location, so the same seed always gives the same map, and the water
+     * percentage of the map type holds for every chunk. Must be called before setMapSize().
+     *
+     * @param seed: The seed from which the map is generated.
+     */
+    public void setChunkedMode(final long seed) {
+        this.chunked = true;
+        this.seed = seed;
+    }
+
+    /**
+     * Switches the map to seeded mode, in which a map generated in full is generated from the
+     * given seed rather than from a random one, so that it can be generated again. The map is
+     * split into regions of rows which are filled in parallel, each from its own random
+     * sequence derived from the seed. The same seed therefore gives exactly the same map
+     * whatever the number of threads, with exactly the same number of water tiles.
+     *
+     * @param seed: The seed from which the map is generated.
+     * @param threads: The number of threads generating the regions of the map.
+     */
+    public void setSeededMode(final long seed, final int threads) {
+        this.seeded = true;
+        this.seed = seed;
+        this.generationThreads = Math.max(1, threads);
+    }
+
+    /**
+     * Switches the map to mapped mode, in which the tiles are kept outside of the Java heap in
+     * a memory-mapped file instead of an array. generate() writes the tiles straight into the
+     * file, replacing its contents, which allows maps far larger than the heap without adding
+     * to the work of the garbage collector. Must be called before setMapSize().
+     *
+     * @param file: The file which will hold the tiles.
+     */
+    public void setMappedMode(final File file) {
+        this.mappedFile = file;
+    }
+
+    /**
+     * Opens a map file written in mapped mode by this or another JVM, instead of generating
+     * the map. The file is mapped read-only so it can be shared by several JVMs. Like
+     * setMapSize(), the map can only be opened if the size of the map was not set before.
+     *
+     * @param file: The file written by generate() in mapped mode.
+     * @return True if the map was opened, false if the size of the map was already set.
+     * @throws IOException: The file could not be read or is not a map file.
      */
-    public void setInitialPlayerPosition(final Player player) throws PositionIsOutOfRange, SizeOfMapWasNotSet {
+    public boolean openMappedFile(final File file) throws IOException {
+        if (size != 0) {
+            return false;
+        }
+        final MappedTileStorage storage = MappedTileStorage.open(file);
+
+        mappedFile = file;
+        tiles = storage;
+        size = storage.getSize();
+        distances = null;
+        tileOrdinals = null;
+        spawnTiles = null;
+        if (size <= MAX_MAPPED_DISTANCE_FIELD_SIZE) {
+            // The file is read-only so the map cannot be repaired
+            computeDistanceField(null);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the maximum size that setMapSize() accepts for this map.
+     *
+     * @return 50, or 1,000,000 in chunked and mapped mode.
+     */
+    public int getMaxMapSize() {
+        if (chunked) {
+            return MAX_CHUNKED_MAP_SIZE;
+        } else if (mappedFile != null) {
+            return MAX_MAPPED_MAP_SIZE;
+        } else {
+            return MAX_MAP_SIZE;
+        }
+    }
+
+    /**
+     * Fill the map with the specified size of the map with random tiles. There is only one
+     * Treasure Tile and the percentage of water Tiles given by getWaterPercentage() (rounded
+     * to the next Integer), unless getPipeline() gives a pipeline generating the tiles. The
+     * rest are Green Tiles. In chunked mode the tiles are not generated here but the first
+     * time their chunk is needed.
+     *
+     * @throws SizeOfMapWasNotSet: Method generate was called before setting the size of the map.
+     */
+    void generate() throws SizeOfMapWasNotSet {
         int x, y;
         Random rand;
 
         if (size == 0) {
             throw new SizeOfMapWasNotSet();
         }
-        rand = new Random();
+        distances = null;
+        tileOrdinals = null;
+        spawnTiles = null;
+
+        if (chunked) {
+            // Only the treasure location is decided up front, by the seed.
+            rand = new Random(seed);
+            final int treasureX = rand.nextInt(size);
+            final int treasureY = rand.nextInt(size);
+
+            tiles = new ChunkedTileStorage(size, CHUNK_SIZE, new ChunkedTileStorage.ChunkGenerator() {
+                @Override
+                public void generate(final PackedTileStorage chunk, final int originX, final int originY) {
+                    final Random chunkRand = new Random(mixSeed(seed, originX, originY));
+
+                    long treasure = -1;
+
+                    if (treasureX >= originX && treasureX < originX + chunk.getWidth()
+                            && treasureY >= originY && treasureY < originY + chunk.getHeight()) {
+                        chunk.setTile(treasureX - originX, treasureY - originY, TILE_TYPE.TREASURE);
+                        treasure = (long) (treasureY - originY) * chunk.getWidth() + (treasureX - originX);
+                    }
+                    placeWater(chunk, chunk.getWidth(), chunk.getHeight(), getWaterPercentage(chunkRand),
+                            treasure, chunkRand);
+                }
+            });
+        } else {
+            // A new storage is already filled with Grass Tiles.
+            final TileStorage storage = mappedFile == null ? new PackedTileStorage(size, size) : createMappedStorage();
+            final long mapSeed = seeded ? seed : new Random().nextLong();
+            final GeneratorPipeline pipeline = getPipeline();
+            rand = new Random(mapSeed);
+
+            if (pipeline != null) {
+                pipeline.generate(storage, size, rand);
+            } else {
+                // Generate random points, size is exclusive but 0 is inclusive.
+                x = rand.nextInt(size);
+                y = rand.nextInt(size);
+
+                // Generate random tile location.
+                storage.setTile(x, y, TILE_TYPE.TREASURE);
+                placeWaterInRegions(storage, getWaterPercentage(rand), (long) y * size + x, mapSeed);
+            }
+            tiles = storage;
+            if (size <= (mappedFile == null ? MAX_DISTANCE_FIELD_SIZE : MAX_MAPPED_DISTANCE_FIELD_SIZE)) {
+                computeDistanceField(new Random(mixSeed(mapSeed, -1, -1)));
+            }
+            if (storage instanceof MappedTileStorage) {
+                ((MappedTileStorage) storage).flush();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the treasure can be reached from at least one Grass tile, that is
+     * whether a player can spawn somewhere from which the game can be won.
+     *
+     * @return True if the map can be won.
+     * @throws DistanceFieldWasNotComputed: The map is chunked or too large.
+     */
+    public boolean isSolvable() {
+        if (distances == null) {
+            throw new DistanceFieldWasNotComputed();
+        }
+        return reachableGrassTiles > 0;
+    }
+
+    /**
+     * Returns the smallest number of moves over Grass needed to reach the treasure from the
+     * specified coordinates, without landing on Water on the way.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return The number of moves, 0 for the treasure itself, or -1 if the treasure cannot
+     * be reached (which is always the case for Water).
+     * @throws PositionIsOutOfRange: Inputted coordinates go below or above the size of the map.
+     * @throws DistanceFieldWasNotComputed: The map is chunked or too large.
+     */
+    public int getDistanceToTreasure(final int x, final int y) throws PositionIsOutOfRange {
+        if ((x < 0 || x >= size) || (y < 0 || y >= size)) {
+            throw new PositionIsOutOfRange(x, y);
+        } else if (distances == null) {
+            throw new DistanceFieldWasNotComputed();
+        }
+        return distances[y * size + x];
+    }
+
+    /**
+     * Returns whether the specified coordinates are a Grass tile from which the treasure
+     * can be reached, that is whether a player spawning there can win the game.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return True if the tile is a Grass tile that can reach the treasure.
+     * @throws PositionIsOutOfRange: Inputted coordinates go below or above the size of the map.
+     * @throws DistanceFieldWasNotComputed: The map is chunked or too large.
+     */
+    public boolean isReachableSpawn(final int x, final int y) throws PositionIsOutOfRange {
+        return getDistanceToTreasure(x, y) > 0;
+    }
+
+    /**
+     * Computes the distance from every tile to the treasure by a breadth first search starting
+     * from the treasure and going over Grass tiles only. If rand is given and the treasure can
+     * be reached from less than MIN_REACHABLE_GRASS_PERCENTAGE of the Grass tiles, the map is
+     * repaired while searching: a Water tile bordering the tiles reached so far is turned to
+     * Grass, a Grass tile which was not reached is turned to Water to keep the amount of Water,
+     * and the search carries on from the opened tile instead of starting again. Once repaired,
+     * the search is done one final time so that the distances are the shortest ones.
+     *
+     * @param rand: Picks the tiles to swap, or null if the map must not be changed.
+     */
+    void computeDistanceField(final Random rand) {
+        final int tiles = size * size;
+        int treasure = -1, grassTiles = 0;
+
+        // Find the treasure and count the Grass tiles
+        for (int i = 0; i < tiles; i++) {
+            final TILE_TYPE type = this.tiles.getTile(i % size, i / size);
+            if (type == TILE_TYPE.TREASURE) {
+                treasure = i;
+            } else if (type == TILE_TYPE.GRASS) {
+                grassTiles++;
+            }
+        }
+        distances = new int[tiles];
+        if (treasure < 0) {
+            Arrays.fill(distances, -1);
+            reachableGrassTiles = 0;
+        } else {
+            // The queue of the first search is reused by the final one
+            final int[] queue = new int[tiles];
+            if (search(treasure, grassTiles, queue, rand)) {
+                search(treasure, grassTiles, queue, null);
+            }
+        }
+        indexSpawnTiles();
+    }
+
+    /**
+     * Helper method for computeDistanceField(). Lists the Grass tiles from which the treasure
+     * can be reached, or every Grass tile if there are none, so that a spawn is a single pick.
+     */
+    private void indexSpawnTiles() {
+        final boolean anyGrass = reachableGrassTiles == 0;
+        int count = 0;
+
+        if (anyGrass) {
+            for (int i = 0; i < distances.length; i++) {
+                if (tiles.getTile(i % size, i / size) == TILE_TYPE.GRASS) {
+                    count++;
+                }
+            }
+        } else {
+            count = reachableGrassTiles;
+        }
+        spawnTiles = new int[count];
+        count = 0;
+        for (int i = 0; i < distances.length && count < spawnTiles.length; i++) {
+            if (anyGrass ? tiles.getTile(i % size, i / size) == TILE_TYPE.GRASS : distances[i] > 0) {
+                spawnTiles[count++] = i;
+            }
+        }
+    }
+
+    /**
+     * Helper method for computeDistanceField(). Returns true if the map was repaired. While
+     * searching, the Water tiles on the border have the distance ON_BORDER instead of -1.
+     */
+    private boolean search(final int treasure, final int grassTiles, final int[] queue, final Random rand) {
+        final int[] border = rand == null ? null : new int[distances.length];
+        int head = 0, tail = 0, borderSize = 0;
+        boolean repaired = false;
+
+        Arrays.fill(distances, -1);
+        distances[treasure] = 0;
+        queue[tail++] = treasure;
+        reachableGrassTiles = 0;
 
         while (true) {
-            x = rand.nextInt(size);
-            y = rand.nextInt(size);
+            while (head < tail) {
+                final int tile = queue[head++];
+                final int x = tile % size, y = tile / size;
 
-            if (getTileType(x, y) == TILE_TYPE.GRASS) {
-                player.setPosition(new Position(x, y));
-                break;
+                for (int direction = 0; direction < 4; direction++) {
+                    final int nx = x + (direction == 0 ? 1 : direction == 1 ? -1 : 0);
+                    final int ny = y + (direction == 2 ? 1 : direction == 3 ? -1 : 0);
+                    if (nx < 0 || ny < 0 || nx >= size || ny >= size) {
+                        continue;
+                    }
+                    final int next = ny * size + nx;
+                    if (distances[next] != -1) {
+                        continue;
+                    }
+                    final TILE_TYPE type = tiles.getTile(nx, ny);
+                    if (type == TILE_TYPE.GRASS) {
+                        distances[next] = distances[tile] + 1;
+                        queue[tail++] = next;
+                        reachableGrassTiles++;
+                    } else if (type == TILE_TYPE.WATER && border != null) {
+                        distances[next] = ON_BORDER;
+                        border[borderSize++] = next;
+                    }
+                }
+            }
+            if (border == null || borderSize == 0
+                    || (long) reachableGrassTiles * 100 >= (long) grassTiles * MIN_REACHABLE_GRASS_PERCENTAGE) {
+                for (int i = 0; i < borderSize; i++) {
+                    distances[border[i]] = -1;
+                }
+                return repaired;
             }
+
+            // Open a random Water tile on the border, and fill a Grass tile that was not reached instead
+            final int pick = rand.nextInt(borderSize);
+            final int opened = border[pick];
+            border[pick] = border[--borderSize];
+            int filled;
+            do {
+                filled = rand.nextInt(distances.length);
+            } while (distances[filled] >= 0 || tiles.getTile(filled % size, filled / size) != TILE_TYPE.GRASS);
+
+            tiles.setTile(filled % size, filled / size, TILE_TYPE.WATER);
+            tiles.setTile(opened % size, opened / size, TILE_TYPE.GRASS);
+            // The tile is on the border, so at least one of its neighbours was reached
+            int closest = Integer.MAX_VALUE;
+            for (int direction = 0; direction < 4; direction++) {
+                final int nx = opened % size + (direction == 0 ? 1 : direction == 1 ? -1 : 0);
+                final int ny = opened / size + (direction == 2 ? 1 : direction == 3 ? -1 : 0);
+                if (nx >= 0 && ny >= 0 && nx < size && ny < size && distances[ny * size + nx] >= 0) {
+                    closest = Math.min(closest, distances[ny * size + nx]);
+                }
+            }
+            distances[opened] = closest + 1;
+            queue[tail++] = opened;
+            reachableGrassTiles++;
+            repaired = true;
         }
     }
 
     /**
-     * Fill the map with the specified size of the map with random tiles.
-     * There is only one Treasure Tile and around 10% (rounded to the
-     * next Integer) water Tiles in the map. The rest are Green Tiles.
+     * Helper method to create the file of a map in mapped mode.
      *
-     * @throws SizeOfMapWasNotSet: Method generate was called before setting the size of the map.
+     * @throws MapFileWasNotAccessible: The file could not be created or mapped.
      */
-    abstract void generate() throws SizeOfMapWasNotSet;
+    private MappedTileStorage createMappedStorage() {
+        try {
+            return MappedTileStorage.create(mappedFile, size);
+        } catch (IOException e) {
+            throw new MapFileWasNotAccessible(mappedFile, e);
+        }
+    }
 
     /**
-     * Set instance is used by the children of Map so that only one instance of map
-     * can be used. When a child is initialise, setInstance should be called to
-     * check if there was an instance beforehand. If there was an instance beforehand,
-     * the new instance is ignored otherwise creates a new instance.
+     * Places the water of a map generated in full, region by region. Every region gets its share
+     * of the water in proportion to the tiles available in it, so that the shares always add up
+     * to the total, and its own random sequence derived from the seed of the map. The regions
+     * never write to the same word or byte of the storage so they are filled in parallel.
      *
-     * @param mapInstance: The new instance.
-     * @throws MapWasAlreadyInitialized: Of there was an instance beforehand, the new instance
-     * is ignored since Map is a singleton.
+     * @param storage: The storage to fill, which is initially all Grass except for the Treasure.
+     * @param percentage: Percentage of the tiles which will be Water.
+     * @param treasure: Index (y * size + x) of the Treasure.
+     * @param mapSeed: The seed of the map.
      */
-    public static void setInstance(Map mapInstance) throws MapWasAlreadyInitialized {
-        if (instance != null) {
-            throw new MapWasAlreadyInitialized();
+    private void placeWaterInRegions(final TileStorage storage, final int percentage, final long treasure,
+                                     final long mapSeed) {
+        final long tiles = (long) size * size, available = tiles - 1;
+        final long total = Math.min(available, (long) Math.ceil(((double) tiles / 100) * percentage));
+        final List<Runnable> regions = new ArrayList<Runnable>();
+
+        for (long start = 0; start < tiles; start += (long) REGION_ROWS * size) {
+            final long first = start, length = Math.min((long) REGION_ROWS * size, tiles - start);
+            final long end = first + length;
+            // Water given to the regions before this one, and up to this one
+            final long before = share(total, first - (treasure < first ? 1 : 0), available);
+            final long upTo = share(total, end - (treasure < end ? 1 : 0), available);
+
+            regions.add(new Runnable() {
+                @Override
+                public void run() {
+                    placeWater(storage, size, first, length, upTo - before, treasure,
+                            new Random(mixSeed(mapSeed, first / size, 0)));
+                }
+            });
         }
-        instance = mapInstance;
+        runRegions(regions);
     }
 
-    public static Map getInstance() {
-        return instance;
+    /**
+     * Helper method to run the regions of a map on generationThreads threads, or on
+     * the calling thread if only one thread is used.
+     *
+     * @throws MapGenerationWasInterrupted: Interrupted while waiting for the regions.
+     */
+    private void runRegions(final List<Runnable> regions) {
+        if (generationThreads == 1 || regions.size() == 1) {
+            for (final Runnable region : regions) {
+                region.run();
+            }
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(generationThreads, regions.size()));
+        final List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        try {
+            for (final Runnable region : regions) {
+                futures.add(executor.submit(region));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MapGenerationWasInterrupted(e);
+        } catch (ExecutionException e) {
+            // A region can only fail with an unchecked exception
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw (RuntimeException) e.getCause();
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
-    public static int getSize() {
+    /**
+     * Returns total * part / whole rounded down, without overflowing for very large maps.
+     */
+    private static long share(final long total, final long part, final long whole) {
+        if (part == 0 || total <= Long.MAX_VALUE / part) {
+            return total * part / whole;
+        }
+        return BigInteger.valueOf(total).multiply(BigInteger.valueOf(part)).divide(BigInteger.valueOf(whole)).longValue();
+    }
+
+    /**
+     * Returns the percentage of water Tiles that a newly generated map, or chunk, should have.
+     *
+     * @param rand: Used by map types which have a range of percentages.
+     * @return The percentage of water Tiles.
+     */
+    abstract int getWaterPercentage(final Random rand);
+
+    /**
+     * Returns the pipeline generating the tiles of a map generated in full, or null if
+     * the Water is spread uniformly at the percentage of getWaterPercentage().
+     *
+     * @return The pipeline of the map, null by default.
+     */
+    GeneratorPipeline getPipeline() {
+        return null;
+    }
+
+    /**
+     * Turns the given percentage (rounded to the next Integer) of the tiles of a storage from
+     * Grass to Water, leaving the Treasure as it is. Exactly that many tiles are turned to Water
+     * without retrying on tiles which are already Water, using Floyd's sampling algorithm over
+     * the indices of the tiles. The storage itself tells which indices were already picked, so
+     * the time taken only depends on the number of water tiles, for any percentage up to 100.
+     *
+     * @param storage: The storage to fill, which is initially all Grass except for the Treasure.
+     * @param width: Width of the storage in tiles.
+     * @param height: Height of the storage in tiles.
+     * @param percentage: Percentage of the tiles which will be Water.
+     * @param treasure: Index (y * width + x) of the Treasure in the storage, -1 if it has none.
+     * @param rand: The source of randomness.
+     */
+    static void placeWater(final TileStorage storage, final int width, final int height,
+                           final int percentage, final long treasure, final Random rand) {
+        final long tiles = (long) width * height;
+        final long available = tiles - (treasure < 0 ? 0 : 1);
+
+        placeWater(storage, width, 0, tiles, Math.min(available, (long) Math.ceil(((double) tiles / 100) * percentage)),
+                treasure, rand);
+    }
+
+    /**
+     * Turns exactly the given number of Grass tiles, out of the tiles with indices (y * width + x)
+     * from first (inclusive) to first + length (exclusive), to Water using Floyd's sampling.
+     * The Treasure is skipped if it lies within the range.
+     *
+     * @param storage: The storage to fill, which is initially Grass in the range except for the Treasure.
+     * @param width: Width of the storage in tiles.
+     * @param first: Index of the first tile of the range.
+     * @param length: Number of tiles in the range.
+     * @param count: Number of tiles to turn to Water, at most the number of Grass tiles in the range.
+     * @param treasure: Index of the Treasure in the storage, -1 if it has none.
+     * @param rand: The source of randomness.
+     */
+    static void placeWater(final TileStorage storage, final int width, final long first, final long length,
+                           final long count, final long treasure, final Random rand) {
+        // Indices are picked out of the tiles other than the Treasure, and shifted past it after.
+        final long skipped = treasure >= first && treasure < first + length ? treasure : -1;
+        final long available = length - (skipped < 0 ? 0 : 1);
+
+        for (long j = available - count; j < available; j++) {
+            long index = nextIndex(rand, j + 1);
+
+            // If the index was already picked, j was never picked before so pick it instead.
+            if (storage.getTile(column(first + index, width, skipped), row(first + index, width, skipped))
+                    == TILE_TYPE.WATER) {
+                index = j;
+            }
+            storage.setTile(column(first + index, width, skipped), row(first + index, width, skipped),
+                    TILE_TYPE.WATER);
+        }
+    }
+
+    /**
+     * Helper methods to find the x and y coordinates of an index picked by placeWater(),
+     * which skips the index of the Treasure.
+     */
+    private static int column(final long index, final int width, final long treasure) {
+        return (int) ((treasure >= 0 && index >= treasure ? index + 1 : index) % width);
+    }
+
+    private static int row(final long index, final int width, final long treasure) {
+        return (int) ((treasure >= 0 && index >= treasure ? index + 1 : index) / width);
+    }
+
+    /**
+     * Returns a random index from 0 (inclusive) to bound (exclusive), which may be larger
+     * than the range of nextInt() for maps in chunked or mapped mode.
+     */
+    private static long nextIndex(final Random rand, final long bound) {
+        if (bound <= Integer.MAX_VALUE) {
+            return rand.nextInt((int) bound);
+        }
+        return (rand.nextLong() >>> 1) % bound;
+    }
+
+    /**
+     * Derives a well spread seed for one part of a map from the seed of the whole map, so
+     * that neighbouring parts do not get correlated random sequences.
+     *
+     * @param seed: The seed of the map.
+     * @param x: The x-coordinate identifying the part.
+     * @param y: The y-coordinate identifying the part.
+     * @return The seed for that part.
+     */
+    static long mixSeed(final long seed, final long x, final long y) {
+        long z = seed + x * 0x9E3779B97F4A7C15L + y * 0xC2B2AE3D27D4EB4FL;
+
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns which players stand on which tiles of the map. It is created the first time
+     * it is needed, once the size of the map is known, and is kept when the map is generated
+     * again since the size of the map does not change.
+     *
+     * @return Occupancy of the map, or null if the size of the map was not set yet.
+     */
+    public synchronized Occupancy getOccupancy() {
+        if (occupancy == null && size != 0) {
+            occupancy = new Occupancy(size);
+        }
+        return occupancy;
+    }
+
+    /**
+     * Returns the ordinal of the type of every tile, row by row (y * size + x). The array is
+     * built the first time it is needed and then shared by every {@link TurnSnapshot} of the
+     * map, since the tiles do not change once generated. It must not be modified.
+     *
+     * @return Ordinals of the tiles.
+     */
+    byte[] getTileOrdinals() {
+        byte[] ordinals = tileOrdinals;
+
+        if (ordinals == null) {
+            ordinals = new byte[size * size];
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    ordinals[y * size + x] = (byte) tiles.getTile(x, y).ordinal();
+                }
+            }
+            tileOrdinals = ordinals;
+        }
+        return ordinals;
+    }
+
+    /**
+     * Returns the size of the map, 0 if it was not set yet.
+     *
+     * @return Width and height of the map in tiles.
+     */
+    public int getSize() {
         return size;
     }
 }
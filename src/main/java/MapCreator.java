@@ -1,5 +1,4 @@
 import exceptions.GameWasNotInitialized;
-import exceptions.MapWasAlreadyInitialized;
 import exceptions.SizeOfMapWasNotSet;
 
 /**
@@ -11,49 +10,121 @@ public class MapCreator {
      * Map types available.
      * SAFE_MAP: contains a map with 10% water tiles.
      * HAZARDOUS_MAP: contains a map between 25%-35% water tiles.
+     * LAKES_MAP: contains lakes covering about 20% of the tiles.
+     * RIVERS_MAP: contains rivers crossing the map and 5% scattered water tiles.
+     * ISLAND_MAP: contains an island surrounded by sea, with a few small lakes.
      */
     public enum MAP_TYPE {
         SAFE_MAP,
-        HAZARDOUS_MAP
+        HAZARDOUS_MAP,
+        LAKES_MAP,
+        RIVERS_MAP,
+        ISLAND_MAP
     }
 
     /**
-     * Creates the map depending on the passed map type. If Map already has an instance,
-     * the instance is returned.
+     * Seed used to create chunked maps, null if maps are generated in full.
+     */
+    private Long chunkedModeSeed = null;
+
+    /**
+     * Pool of maps generated ahead of time, null if maps are always generated on demand.
+     */
+    private MapPool mapPool = null;
+
+    /**
+     * Makes the maps created from now on chunked maps, which allow sizes of up to
+     * 1,000,000 and are generated lazily from the given seed.
+     *
+     * @param seed: The seed from which the maps are generated.
+     */
+    public void setChunkedMode(final long seed) {
+        chunkedModeSeed = seed;
+    }
+
+    /**
+     * Takes maps from the given pool when one of the right type and size is ready, instead
+     * of generating them. Chunked maps are never taken from the pool.
+     *
+     * @param mapPool: The pool of maps, or null to always generate maps on demand.
+     */
+    public void setMapPool(final MapPool mapPool) {
+        this.mapPool = mapPool;
+    }
+
+    /**
+     * Creates a new map depending on the passed map type. Every call creates a new map,
+     * independent from any map created before, so that every game has its own map.
      *
      * @param type: The map type of the game.
      * @param game: Required game variables needed to set up the map.
-     * @return An new instance of a map if there was not an instance before or the
-     * already existing instance if there was an instance.
+     * @return A new instance of a map, which may come from the pool of maps.
      * @throws GameWasNotInitialized Thrown by setMapSize() if the number of player was not set
      * since the minimum size of the map depends on the number of players.
      * @throws SizeOfMapWasNotSet Thrown by map.generate() if the size of the map was
      * not set since these operations depend on the map size.
      */
     public Map createMap(MAP_TYPE type, Game game) throws SizeOfMapWasNotSet, GameWasNotInitialized {
-        Map map;
+        final Map map = newMap(type);
 
-        try {
-            switch (type) {
-                case SAFE_MAP:
-                    map = new SafeMap();
-                    // Set map size and generate map
-                    setMapSize(game);
-                    map.generate();
-                    return map;
-                case HAZARDOUS_MAP:
-                    map = new HazardousMap();
-                    // Set map size and generate map
-                    setMapSize(game);
-                    map.generate();
-                    return map;
-                default:
-                    return Map.getInstance();
+        setMode(map);
+        // Set map size and generate map, unless the pool has one ready
+        setMapSize(map, game);
+        if (mapPool != null && chunkedModeSeed == null) {
+            final Map pooledMap = mapPool.poll(type, map.getSize());
+            if (pooledMap != null) {
+                return pooledMap;
             }
+        }
+        map.generate();
+        return map;
+    }
+
+    /**
+     * Creates a new map of the passed map type, without setting its size or generating it.
+     *
+     * @param type: The map type.
+     * @return A new instance of a map.
+     */
+    Map newMap(final MAP_TYPE type) {
+        Map map;
+
+        switch (type) {
+            case SAFE_MAP:
+                map = new SafeMap();
+                break;
+            case HAZARDOUS_MAP:
+                map = new HazardousMap();
+                break;
+            case LAKES_MAP:
+                map = new PipelineMap(new GeneratorPipeline()
+                        .add(new NoiseLakesStage(20, 12))
+                        .add(new TreasureStage()), 20);
+                break;
+            case RIVERS_MAP:
+                map = new PipelineMap(new GeneratorPipeline()
+                        .add(new UniformWaterStage(5))
+                        .add(new RiverStage(2))
+                        .add(new TreasureStage()), 10);
+                break;
+            case ISLAND_MAP:
+                map = new PipelineMap(new GeneratorPipeline()
+                        .add(new IslandStage(40))
+                        .add(new NoiseLakesStage(5, 6))
+                        .add(new TreasureStage()), 30);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown map type " + type + ".");
+        }
+        return map;
+    }
 
-        } catch (MapWasAlreadyInitialized mapWasAlreadyInitialized) {
-            // If Map already exists, return the instance of that map.
-            return Map.getInstance();
+    /**
+     * Helper method to switch a newly created map to chunked mode if required.
+     */
+    private void setMode(final Map map) {
+        if (chunkedModeSeed != null) {
+            map.setChunkedMode(chunkedModeSeed);
         }
     }
 
@@ -62,8 +133,7 @@ public class MapCreator {
      *
      * @throws GameWasNotInitialized Thrown if the players array is null.
      */
-    private void setMapSize(Game game) throws GameWasNotInitialized {
-        Map map;
+    private void setMapSize(final Map map, final Game game) throws GameWasNotInitialized {
 
         // Check if players array was initialized
         if (game.getPlayers() == null) {
@@ -71,11 +141,9 @@ public class MapCreator {
         }
 
         // Minimum (based on players) and maximum map size and a range in string form
-        final int MIN_MAP_SIZE = (game.getPlayers().length <= 4 ? 5 : 8), MAX_MAP_SIZE = 50;
+        final int MIN_MAP_SIZE = (game.getPlayers().length <= 4 ? 5 : 8), MAX_MAP_SIZE = map.getMaxMapSize();
         final String MAP_SIZE_RANGE = "(" + MIN_MAP_SIZE + "-" + MAX_MAP_SIZE + ")";
 
-        map = Map.getInstance();
-
         // Loop until a valid map size is obtained
         while (true) {
             System.out.println("What will be the size of the map? " + MAP_SIZE_RANGE);
@@ -0,0 +1,184 @@
+import exceptions.SizeOfMapWasNotSet;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps maps of common types and sizes generated ahead of time, so that a game can start
+ * without waiting for its map. Every (type, size) combination warmed up has its own queue
+ * of at most capacity ready maps, which is topped up in the background every time a map
+ * is taken. The threads generating maps are daemon threads, so a pool which is not shut
+ * down does not keep the program running.
+ */
+public class MapPool {
+
+    /**
+     * Ready maps and maps being generated for one (type, size) combination.
+     */
+    private static class Entry {
+        private final BlockingQueue<Map> ready;
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private Entry(final int capacity) {
+            ready = new ArrayBlockingQueue<Map>(capacity);
+        }
+    }
+
+    private final int capacity;
+    private final ExecutorService executor;
+    private final MapCreator mapCreator = new MapCreator();
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+    /**
+     * @param capacity: Number of ready maps kept for every (type, size) combination.
+     * @param threads: Number of threads generating maps in the background.
+     */
+    public MapPool(final int capacity, final int threads) {
+        this.capacity = capacity;
+        this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "map-pool");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Starts generating maps of a type and size in the background, so that they are ready
+     * when a game asks for them.
+     *
+     * @param type: The map type.
+     * @param size: The size of the map, which must be allowed for 2 players.
+     * @throws IllegalArgumentException: Maps of this size cannot be generated.
+     */
+    public void warm(final MapCreator.MAP_TYPE type, final int size) {
+        if (!mapCreator.newMap(type).setMapSize(size, size, 2)) {
+            throw new IllegalArgumentException("Maps of size " + size + " cannot be pooled.");
+        }
+        final Entry entry = new Entry(capacity);
+        final Entry previous = entries.putIfAbsent(key(type, size), entry);
+
+        refill(type, size, previous == null ? entry : previous);
+    }
+
+    /**
+     * Takes a ready map of a type and size. The map is replaced in the background if the
+     * combination was warmed up.
+     *
+     * @param type: The map type.
+     * @param size: The size of the map.
+     * @return A generated map, or null if none is ready.
+     */
+    public Map poll(final MapCreator.MAP_TYPE type, final int size) {
+        final Entry entry = entries.get(key(type, size));
+        final Map map = entry == null ? null : entry.ready.poll();
+
+        if (map == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        if (entry != null) {
+            refill(type, size, entry);
+        }
+        return map;
+    }
+
+    /**
+     * Returns the number of maps that were ready when asked for.
+     *
+     * @return Number of hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of maps that were not ready when asked for, and had to be
+     * generated by the caller.
+     *
+     * @return Number of misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of ready maps of a type and size.
+     *
+     * @param type: The map type.
+     * @param size: The size of the map.
+     * @return Number of ready maps.
+     */
+    public int getReadyCount(final MapCreator.MAP_TYPE type, final int size) {
+        final Entry entry = entries.get(key(type, size));
+        return entry == null ? 0 : entry.ready.size();
+    }
+
+    /**
+     * Stops generating maps. Maps already being generated are finished.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Helper method to start generating maps until the ready and pending maps fill the queue.
+     */
+    private void refill(final MapCreator.MAP_TYPE type, final int size, final Entry entry) {
+        while (!executor.isShutdown()) {
+            final int pending = entry.pending.get();
+            if (pending + entry.ready.size() >= capacity) {
+                return;
+            } else if (entry.pending.compareAndSet(pending, pending + 1)) {
+                try {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                entry.ready.offer(generate(type, size));
+                            } finally {
+                                entry.pending.decrementAndGet();
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // The pool was shut down meanwhile
+                    entry.pending.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to generate a map of a type and size.
+     */
+    private Map generate(final MapCreator.MAP_TYPE type, final int size) {
+        final Map map = mapCreator.newMap(type);
+
+        map.setMapSize(size, size, 2);
+        try {
+            map.generate();
+        } catch (SizeOfMapWasNotSet e) {
+            // Cannot happen since the size was just set
+            throw new IllegalStateException(e);
+        }
+        return map;
+    }
+
+    private static String key(final MapCreator.MAP_TYPE type, final int size) {
+        return type + ":" + size;
+    }
+}
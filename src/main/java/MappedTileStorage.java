@@ -0,0 +1,145 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Stores tiles outside of the Java heap in a memory-mapped file, using 2 bits per tile laid
+ * out row by row like {@link PackedTileStorage}. The file starts with a small header holding
+ * the size of the map, so that a map generated once can be opened again, read-only, by any
+ * number of JVMs without generating it again. Since a single mapping is limited to 2GB, the
+ * tiles are mapped in segments of 1GB.
+ */
+public class MappedTileStorage implements TileStorage {
+
+    /**
+     * Layout of the header and of the tiles in the file.
+     */
+    private static final int MAGIC = 0x54524D50;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int BITS_PER_TILE = 2;
+    private static final int TILES_PER_BYTE = Byte.SIZE / BITS_PER_TILE;
+    private static final int TILE_MASK = (1 << BITS_PER_TILE) - 1;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    private final int size;
+    private final MappedByteBuffer[] segments;
+
+    private MappedTileStorage(final int size, final MappedByteBuffer[] segments) {
+        this.size = size;
+        this.segments = segments;
+    }
+
+    /**
+     * Creates, or overwrites, a map file which is entirely Grass and maps it read-write.
+     *
+     * @param file: The file to create.
+     * @param size: Width and height of the map in tiles.
+     * @return The storage backed by the file.
+     * @throws IOException: The file could not be created or mapped.
+     */
+    public static MappedTileStorage create(final File file, final int size) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+        try {
+            // Truncate first so that no tiles are left over from an older map
+            raf.setLength(0);
+            raf.setLength(HEADER_SIZE + dataSize(size));
+            raf.writeInt(MAGIC);
+            raf.writeInt(VERSION);
+            raf.writeInt(size);
+            return new MappedTileStorage(size, map(raf.getChannel(), FileChannel.MapMode.READ_WRITE, dataSize(size)));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Opens an existing map file read-only, without generating it again.
+     *
+     * @param file: The file created by create().
+     * @return The storage backed by the file.
+     * @throws IOException: The file could not be read, mapped or is not a map file.
+     */
+    public static MappedTileStorage open(final File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+        try {
+            if (raf.length() < HEADER_SIZE || raf.readInt() != MAGIC || raf.readInt() != VERSION) {
+                throw new IOException(file + " is not a map file.");
+            }
+            final int size = raf.readInt();
+            if (size <= 0 || raf.length() != HEADER_SIZE + dataSize(size)) {
+                throw new IOException(file + " does not match the size of its map.");
+            }
+            return new MappedTileStorage(size, map(raf.getChannel(), FileChannel.MapMode.READ_ONLY, dataSize(size)));
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Override
+    public Map.TILE_TYPE getTile(final int x, final int y) {
+        final long index = (long) y * size + x;
+        final long byteIndex = index / TILES_PER_BYTE;
+        final int shift = (int) (index % TILES_PER_BYTE) * BITS_PER_TILE;
+        final byte tiles = segments[(int) (byteIndex >>> SEGMENT_SHIFT)].get((int) (byteIndex & (SEGMENT_SIZE - 1)));
+
+        return Map.TILE_TYPES[(tiles >>> shift) & TILE_MASK];
+    }
+
+    @Override
+    public void setTile(final int x, final int y, final Map.TILE_TYPE type) {
+        final long index = (long) y * size + x;
+        final long byteIndex = index / TILES_PER_BYTE;
+        final int shift = (int) (index % TILES_PER_BYTE) * BITS_PER_TILE;
+        final MappedByteBuffer segment = segments[(int) (byteIndex >>> SEGMENT_SHIFT)];
+        final int offset = (int) (byteIndex & (SEGMENT_SIZE - 1));
+
+        segment.put(offset, (byte) ((segment.get(offset) & ~(TILE_MASK << shift)) | (type.ordinal() << shift)));
+    }
+
+    /**
+     * Returns the width and height of the map stored in the file.
+     *
+     * @return Size of the map.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Writes any changed tiles back to the file. Does nothing if the file was opened read-only.
+     */
+    public void flush() {
+        for (final MappedByteBuffer segment : segments) {
+            if (!segment.isReadOnly()) {
+                segment.force();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes needed for the tiles of a map of the given size.
+     */
+    private static long dataSize(final int size) {
+        return ((long) size * size + TILES_PER_BYTE - 1) / TILES_PER_BYTE;
+    }
+
+    /**
+     * Maps the tiles found after the header in segments of at most SEGMENT_SIZE bytes.
+     */
+    private static MappedByteBuffer[] map(final FileChannel channel, final FileChannel.MapMode mode,
+                                          final long dataSize) throws IOException {
+        final MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((dataSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+
+        for (int i = 0; i < segments.length; i++) {
+            final long start = i * SEGMENT_SIZE;
+            segments[i] = channel.map(mode, HEADER_SIZE + start, Math.min(SEGMENT_SIZE, dataSize - start));
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact history of the positions of a player, used to replay a game. A move of one tile
+ * up, down, left or right is stored as 2 bits. Any other step, such as the first position,
+ * going back to the start after landing on Water, or staying on the same tile, is a jump:
+ * its 2 bits are unused and its step number and target position are kept on the side.
+ */
+public class MoveLog {
+
+    /**
+     * Codes of the moves of one tile, as stored in the 2 bits of a step.
+     */
+    private static final int UP = 0, DOWN = 1, LEFT = 2, RIGHT = 3;
+    private static final int STEPS_PER_WORD = Long.SIZE / 2;
+
+    private long[] steps = new long[1];
+    private int stepCount = 0;
+    private int[] jumpSteps = new int[4];
+    private int[] jumpXs = new int[4], jumpYs = new int[4];
+    private int jumpCount = 0;
+
+    /**
+     * Records a step of the player.
+     *
+     * @param from: Position before the step, null for the first position.
+     * @param to: Position after the step.
+     */
+    public void record(final Position from, final Position to) {
+        final int code = from == null ? -1 : code(to.getX() - from.getX(), to.getY() - from.getY());
+
+        if (stepCount / STEPS_PER_WORD == steps.length) {
+            steps = Arrays.copyOf(steps, steps.length * 2);
+        }
+        if (code < 0) {
+            if (jumpCount == jumpSteps.length) {
+                jumpSteps = Arrays.copyOf(jumpSteps, jumpCount * 2);
+                jumpXs = Arrays.copyOf(jumpXs, jumpCount * 2);
+                jumpYs = Arrays.copyOf(jumpYs, jumpCount * 2);
+            }
+            jumpSteps[jumpCount] = stepCount;
+            jumpXs[jumpCount] = to.getX();
+            jumpYs[jumpCount] = to.getY();
+            jumpCount++;
+        } else {
+            steps[stepCount / STEPS_PER_WORD] |= (long) code << (stepCount % STEPS_PER_WORD * 2);
+        }
+        stepCount++;
+    }
+
+    /**
+     * Returns the number of steps recorded.
+     *
+     * @return Number of steps.
+     */
+    public int size() {
+        return stepCount;
+    }
+
+    /**
+     * Returns the number of steps which were not moves of one tile.
+     *
+     * @return Number of jumps.
+     */
+    public int getJumpCount() {
+        return jumpCount;
+    }
+
+    /**
+     * Returns the number of bytes taken by the log, ignoring object headers.
+     *
+     * @return Size of the arrays in bytes.
+     */
+    public long getFootprint() {
+        return (long) steps.length * (Long.SIZE / Byte.SIZE) + 3L * jumpSteps.length * (Integer.SIZE / Byte.SIZE);
+    }
+
+    /**
+     * Replays the log, returning the position of the player after every step.
+     *
+     * @return Positions in the order they were recorded.
+     */
+    public List<Position> replay() {
+        final List<Position> positions = new ArrayList<Position>(stepCount);
+        int x = 0, y = 0, jump = 0;
+
+        for (int step = 0; step < stepCount; step++) {
+            if (jump < jumpCount && jumpSteps[jump] == step) {
+                x = jumpXs[jump];
+                y = jumpYs[jump];
+                jump++;
+            } else {
+                switch ((int) (steps[step / STEPS_PER_WORD] >>> (step % STEPS_PER_WORD * 2)) & 3) {
+                    case UP:
+                        y--;
+                        break;
+                    case DOWN:
+                        y++;
+                        break;
+                    case LEFT:
+                        x--;
+                        break;
+                    default:
+                        x++;
+                        break;
+                }
+            }
+            positions.add(Position.valueOf(x, y));
+        }
+        return positions;
+    }
+
+    /**
+     * Helper method returning the code of a move of one tile, or -1 for a jump.
+     */
+    private static int code(final int dx, final int dy) {
+        if (dx == 0 && dy == -1) {
+            return UP;
+        } else if (dx == 0 && dy == 1) {
+            return DOWN;
+        } else if (dx == -1 && dy == 0) {
+            return LEFT;
+        } else if (dx == 1 && dy == 0) {
+            return RIGHT;
+        } else {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Turns the low areas of a smooth noise into Water, giving lakes instead of scattered
+ * Water tiles. The noise is value noise: random heights on a square lattice, smoothly
+ * interpolated in between, with a second finer lattice added for rougher shores. Since the
+ * height of a tile only depends on its coordinates, rows can be generated in any order.
+ */
+public class NoiseLakesStage implements GenerationStage {
+
+    /**
+     * Number of heights sampled to find the level under which a tile is Water.
+     */
+    private static final int LEVEL_SAMPLES = 4096;
+
+    private final int percentage, scale;
+    private long seed;
+    private double level;
+
+    /**
+     * @param percentage: Roughly the percentage of the tiles turned into Water.
+     * @param scale: Distance in tiles between the points of the lattice, about the size of a lake.
+     */
+    public NoiseLakesStage(final int percentage, final int scale) {
+        this.percentage = percentage;
+        this.scale = scale;
+    }
+
+    @Override
+    public void start(final int size, final Random rand) {
+        final double[] samples = new double[LEVEL_SAMPLES];
+
+        seed = rand.nextLong();
+        // The heights are not uniform, so the level is estimated from random tiles
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = height(seed, rand.nextInt(size), rand.nextInt(size), scale);
+        }
+        Arrays.sort(samples);
+        level = percentage <= 0 ? Double.NEGATIVE_INFINITY
+                : samples[Math.min(samples.length - 1, samples.length * percentage / 100)];
+    }
+
+    @Override
+    public void transformRow(final int y, final Map.TILE_TYPE[] row) {
+        for (int x = 0; x < row.length; x++) {
+            if (height(seed, x, y, scale) < level) {
+                row[x] = Map.TILE_TYPE.WATER;
+            }
+        }
+    }
+
+    @Override
+    public void finish(final TileStorage tiles) {
+    }
+
+    /**
+     * Returns the height of the noise at a tile, between 0 (inclusive) and 1 (exclusive).
+     *
+     * @param seed: Seed of the noise.
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @param scale: Distance in tiles between the points of the coarse lattice.
+     * @return The height at the tile.
+     */
+    static double height(final long seed, final int x, final int y, final int scale) {
+        final int fine = Math.max(1, scale / 4);
+        return 0.75 * valueNoise(seed, (double) x / scale, (double) y / scale)
+                + 0.25 * valueNoise(~seed, (double) x / fine, (double) y / fine);
+    }
+
+    /**
+     * Helper method to interpolate the lattice heights around a point.
+     */
+    private static double valueNoise(final long seed, final double x, final double y) {
+        final int x0 = (int) Math.floor(x), y0 = (int) Math.floor(y);
+        final double u = smooth(x - x0), v = smooth(y - y0);
+        final double top = lerp(lattice(seed, x0, y0), lattice(seed, x0 + 1, y0), u);
+        final double bottom = lerp(lattice(seed, x0, y0 + 1), lattice(seed, x0 + 1, y0 + 1), u);
+
+        return lerp(top, bottom, v);
+    }
+
+    /**
+     * Helper method returning the random height of a point of the lattice.
+     */
+    private static double lattice(final long seed, final int x, final int y) {
+        return (Map.mixSeed(seed, x, y) >>> 11) * 0x1.0p-53;
+    }
+
+    private static double smooth(final double t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    private static double lerp(final double a, final double b, final double t) {
+        return a + (b - a) * t;
+    }
+}
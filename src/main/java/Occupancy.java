@@ -0,0 +1,227 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps track of which players stand on which tile of a map, so that the occupants of a
+ * tile can be found without going through every player. Every tile holds the slot of its
+ * first occupant and the occupants of a tile are linked to each other through the next and
+ * prev arrays (an intrusive linked list), so moving a player is a constant time unlink and
+ * link. Maps of up to MAX_GRID_MAP_SIZE tiles wide keep the first occupants in a grid, larger
+ * maps only keep the occupied tiles in a {@link PositionIntMap}.
+ */
+public class Occupancy {
+
+    /**
+     * Largest size of map for which a grid of first occupants is allocated (4MB).
+     */
+    static final int MAX_GRID_MAP_SIZE = 1024;
+
+    private static final int NONE = -1;
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private final int size;
+    private final int[] heads;
+    private final PositionIntMap sparseHeads;
+
+    /**
+     * The players by slot, the next and previous occupants of the same tile, and the tile of
+     * every slot packed using Position.pack(...). Free slots are linked through next.
+     */
+    private Player[] players = new Player[DEFAULT_CAPACITY];
+    private int[] next = new int[DEFAULT_CAPACITY], prev = new int[DEFAULT_CAPACITY];
+    private long[] tiles = new long[DEFAULT_CAPACITY];
+    private boolean[] placed = new boolean[DEFAULT_CAPACITY];
+    private int slots = 0, freeSlot = NONE, count = 0;
+
+    /**
+     * @param size: Width and height of the map in tiles.
+     */
+    public Occupancy(final int size) {
+        this.size = size;
+        if (size <= MAX_GRID_MAP_SIZE) {
+            heads = new int[size * size];
+            Arrays.fill(heads, NONE);
+            sparseHeads = null;
+        } else {
+            heads = null;
+            sparseHeads = new PositionIntMap(NONE);
+        }
+    }
+
+    /**
+     * Moves a player to the specified tile, adding the player if it was not tracked yet. A
+     * player moved outside of the map is still tracked but occupies no tile.
+     *
+     * @param player: The player that moved.
+     * @param x: The x-coordinate of the new tile.
+     * @param y: The y-coordinate of the new tile.
+     */
+    public synchronized void move(final Player player, final int x, final int y) {
+        int slot = player.occupancySlot;
+
+        if (slot == NONE) {
+            slot = allocateSlot();
+            players[slot] = player;
+            player.occupancySlot = slot;
+            count++;
+        } else {
+            unlink(slot);
+        }
+        if (x >= 0 && x < size && y >= 0 && y < size) {
+            link(slot, x, y);
+        }
+    }
+
+    /**
+     * Stops tracking a player.
+     *
+     * @param player: The player to be removed.
+     */
+    public synchronized void remove(final Player player) {
+        final int slot = player.occupancySlot;
+
+        if (slot != NONE && players[slot] == player) {
+            unlink(slot);
+            players[slot] = null;
+            next[slot] = freeSlot;
+            freeSlot = slot;
+            player.occupancySlot = NONE;
+            count--;
+        }
+    }
+
+    /**
+     * Checks if at least one player stands on the specified tile.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return True if the tile is occupied.
+     */
+    public synchronized boolean isOccupied(final int x, final int y) {
+        return getHead(x, y) != NONE;
+    }
+
+    /**
+     * Returns the player which most recently moved onto the specified tile.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return The first occupant, or null if the tile is not occupied.
+     */
+    public synchronized Player getFirstOccupant(final int x, final int y) {
+        final int head = getHead(x, y);
+
+        return head == NONE ? null : players[head];
+    }
+
+    /**
+     * Returns the occupant that follows the specified player on the tile of the player.
+     *
+     * @param player: An occupant of a tile.
+     * @return The next occupant, or null if the player is the last one or occupies no tile.
+     */
+    public synchronized Player getNextOccupant(final Player player) {
+        final int slot = player.occupancySlot;
+
+        if (slot == NONE || players[slot] != player || !placed[slot] || next[slot] == NONE) {
+            return null;
+        }
+        return players[next[slot]];
+    }
+
+    /**
+     * Returns all the players standing on the specified tile.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return The occupants, most recent first.
+     */
+    public synchronized List<Player> getOccupants(final int x, final int y) {
+        final List<Player> occupants = new ArrayList<Player>();
+
+        for (int slot = getHead(x, y); slot != NONE; slot = next[slot]) {
+            occupants.add(players[slot]);
+        }
+        return occupants;
+    }
+
+    /**
+     * Returns the number of players tracked, including those that occupy no tile.
+     *
+     * @return Number of players.
+     */
+    public synchronized int getPlayerCount() {
+        return count;
+    }
+
+    private int allocateSlot() {
+        if (freeSlot != NONE) {
+            final int slot = freeSlot;
+            freeSlot = next[slot];
+            return slot;
+        }
+        if (slots == players.length) {
+            final int capacity = slots * 2;
+            players = Arrays.copyOf(players, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            tiles = Arrays.copyOf(tiles, capacity);
+            placed = Arrays.copyOf(placed, capacity);
+        }
+        return slots++;
+    }
+
+    /**
+     * Makes the slot the first occupant of the specified tile.
+     */
+    private void link(final int slot, final int x, final int y) {
+        final int head = getHead(x, y);
+
+        next[slot] = head;
+        prev[slot] = NONE;
+        if (head != NONE) {
+            prev[head] = slot;
+        }
+        setHead(x, y, slot);
+        tiles[slot] = Position.pack(x, y);
+        placed[slot] = true;
+    }
+
+    /**
+     * Takes the slot out of the list of the tile it occupies, if any.
+     */
+    private void unlink(final int slot) {
+        if (!placed[slot]) {
+            return;
+        }
+        final int x = Position.unpackX(tiles[slot]), y = Position.unpackY(tiles[slot]);
+
+        if (prev[slot] != NONE) {
+            next[prev[slot]] = next[slot];
+        } else {
+            setHead(x, y, next[slot]);
+        }
+        if (next[slot] != NONE) {
+            prev[next[slot]] = prev[slot];
+        }
+        placed[slot] = false;
+    }
+
+    private int getHead(final int x, final int y) {
+        if (x < 0 || x >= size || y < 0 || y >= size) {
+            return NONE;
+        }
+        return heads != null ? heads[y * size + x] : sparseHeads.get(x, y);
+    }
+
+    private void setHead(final int x, final int y, final int slot) {
+        if (heads != null) {
+            heads[y * size + x] = slot;
+        } else if (slot == NONE) {
+            sparseHeads.remove(x, y);
+        } else {
+            sparseHeads.put(x, y, slot);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Stores tiles using 2 bits per tile in a long array instead of one object reference
+ * per tile. Tiles are laid out row by row (y * width + x) so that a renderer going
+ * through a row reads neighbouring bits of the same word. A tile is stored as the
+ * ordinal of its {@link Map.TILE_TYPE}, so a newly created storage is all Grass.
+ */
+public class PackedTileStorage implements TileStorage {
+
+    /**
+     * Layout of the tiles inside every word of the array.
+     */
+    private static final int BITS_PER_TILE = 2;
+    private static final int TILES_PER_WORD = Long.SIZE / BITS_PER_TILE;
+    private static final int WORD_SHIFT = 5;
+    private static final long TILE_MASK = (1L << BITS_PER_TILE) - 1;
+
+    private final int width, height;
+    private final long[] words;
+
+    /**
+     * Allocates a storage that is entirely Grass.
+     *
+     * @param width: Width in tiles.
+     * @param height: Height in tiles.
+     */
+    public PackedTileStorage(final int width, final int height) {
+        this.width = width;
+        this.height = height;
+        this.words = new long[(int) (((long) width * height + TILES_PER_WORD - 1) / TILES_PER_WORD)];
+    }
+
+    @Override
+    public Map.TILE_TYPE getTile(final int x, final int y) {
+        final long index = (long) y * width + x;
+        final int shift = (int) (index & (TILES_PER_WORD - 1)) * BITS_PER_TILE;
+
+        return Map.TILE_TYPES[(int) ((words[(int) (index >>> WORD_SHIFT)] >>> shift) & TILE_MASK)];
+    }
+
+    @Override
+    public void setTile(final int x, final int y, final Map.TILE_TYPE type) {
+        final long index = (long) y * width + x;
+        final int shift = (int) (index & (TILES_PER_WORD - 1)) * BITS_PER_TILE;
+        final int word = (int) (index >>> WORD_SHIFT);
+
+        words[word] = (words[word] & ~(TILE_MASK << shift)) | ((long) type.ordinal() << shift);
+    }
+
+    /**
+     * Returns the width of the storage in tiles.
+     *
+     * @return Width in tiles.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the storage in tiles.
+     *
+     * @return Height in tiles.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of bytes taken by the tiles, ignoring the object header.
+     *
+     * @return Size of the long array in bytes.
+     */
+    public long getFootprint() {
+        return (long) words.length * (Long.SIZE / Byte.SIZE);
+    }
+}
@@ -0,0 +1,32 @@
+import java.util.Random;
+
+/**
+ * Generates a Map by running a {@link GeneratorPipeline}, so that new kinds of maps are
+ * composed from stages instead of written as new subclasses. Chunked maps generate every
+ * chunk on its own, which the rows of a pipeline do not allow, so they fall back to Water
+ * spread uniformly at the given percentage.
+ */
+public class PipelineMap extends Map {
+
+    private final GeneratorPipeline pipeline;
+    private final int chunkedWaterPercentage;
+
+    /**
+     * @param pipeline: The pipeline generating the tiles of the map.
+     * @param chunkedWaterPercentage: Percentage of Water tiles in chunked mode.
+     */
+    public PipelineMap(final GeneratorPipeline pipeline, final int chunkedWaterPercentage) {
+        this.pipeline = pipeline;
+        this.chunkedWaterPercentage = chunkedWaterPercentage;
+    }
+
+    @Override
+    GeneratorPipeline getPipeline() {
+        return pipeline;
+    }
+
+    @Override
+    int getWaterPercentage(final Random rand) {
+        return chunkedWaterPercentage;
+    }
+}
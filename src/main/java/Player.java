@@ -2,9 +2,6 @@ import exceptions.InitialPlayerPositionWasNotSet;
 import exceptions.PlayerDidNotHaveAnyPositionsYet;
 import exceptions.PositionIsOutOfRange;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Represents a player in the game. It stores the player's ID, where the player current
  * is and where the player has been. Also provides functions to make the player move, to
@@ -16,34 +13,54 @@ import java.util.List;
 public class Player {
 
     /**
-     * Player ID, current position, and list of visited positions. The list is kept so
-     * the the game can check which tiles to keep uncovered for the player.
+     * Player ID, current and start positions, and the visited tiles. The visited tiles are
+     * kept so the the game can check which tiles to keep uncovered for the player, once
+     * each however many times they are visited. The map is the one the player is playing
+     * on, which gives the bounds of the positions. The move log is only kept on request.
+     * Players of a team share the visibility of their team.
      */
     private final int ID;
     private Position position = null;
-    private final List<Position> visited;
+    private Position startPosition = null;
+    private Position turnStartPosition = null;
+    private final Visibility visibility;
+    private MoveLog moveLog = null;
+
+    /**
+     * Positions not yet revealed to the team, when the team is in batched mode.
+     */
+    private PositionSet bufferedPositions = null;
     private Team team = null;
+    private Map map = null;
+
+    /**
+     * Occupancy of the map of the player, kept up to date on every move, and the slot of the
+     * player in it (which is managed by the occupancy).
+     */
+    private Occupancy occupancy = null;
+    int occupancySlot = -1;
 
     /**
-     * Constructor that only requires the player ID as an argument. It sets the ID
-     * and initializes the list of visited positions to an empty list.
+     * Constructor that only requires the player ID as an argument. It sets the ID,
+     * and the player starts with no visited tiles.
      *
      * @param ID Player ID.
      */
     public Player(final int ID) {
         this.ID = ID;
-        this.visited = new ArrayList<Position>();
+        this.visibility = new Visibility();
     }
 
     /**
-     * Constructor that also requires the team as an argument, besides the ID. It
-     * calls the other constructor, sets the team, and adds the player to it.
+     * Constructor that also requires the team as an argument, besides the ID. It sets
+     * the ID and the team, shares the visibility of the team, and adds the player to it.
      *
      * @param ID Player ID.
      * @param team Team that player will be placed in.
      */
     public Player(final int ID, final Team team) {
-        this(ID);
+        this.ID = ID;
+        this.visibility = team.getVisibility();
         this.team = team;
         this.team.addPlayer(this);
     }
@@ -67,25 +84,123 @@ public class Player {
     }
 
     /**
-     * Sets the player's initial position to the last position added to the player's list of
-     * visited positions. This is used in the collaborative mode since the first position in
-     * the player's visited list is otherwise not guaranteed to be the initial position.
+     * Returns the map that the player is playing on (null if not set).
+     *
+     * @return Map.
+     */
+    public Map getMap() {
+        return map;
+    }
+
+    /**
+     * Sets the map that the player is playing on. This is done by the map itself when
+     * it sets the initial position of the player. The visibility of the player is sized
+     * to the map.
+     *
+     * @param map Map that the player is playing on.
+     */
+    public void setMap(final Map map) {
+        final Occupancy mapOccupancy = map == null ? null : map.getOccupancy();
+
+        this.map = map;
+        if (map != null && map.getSize() != visibility.getSize()) {
+            visibility.bind(map.getSize());
+        }
+        if (mapOccupancy != occupancy) {
+            if (occupancy != null) {
+                occupancy.remove(this);
+            }
+            occupancy = mapOccupancy;
+            if (occupancy != null && position != null) {
+                occupancy.move(this, position.getX(), position.getY());
+            }
+        }
+    }
+
+    /**
+     * Returns the tiles revealed to the player, that is the tiles the player visited, or
+     * that the team of the player visited.
+     *
+     * @return Visibility of the player.
+     */
+    public Visibility getVisibility() {
+        return visibility;
+    }
+
+    /**
+     * Starts or stops keeping a log of every position the player moves to, which can be
+     * replayed. Stopping drops the log kept so far.
+     *
+     * @param enabled True to keep a move log.
+     */
+    public void setMoveLogging(final boolean enabled) {
+        if (!enabled) {
+            moveLog = null;
+        } else if (moveLog == null) {
+            moveLog = new MoveLog();
+        }
+    }
+
+    /**
+     * Returns the move log of the player (null if move logging is off).
+     *
+     * @return Move log.
+     */
+    public MoveLog getMoveLog() {
+        return moveLog;
+    }
+
+    /**
+     * Sets the player's initial position to the current position of the player. This is
+     * used once all the players were placed, since the first position set is not always
+     * the initial position.
      *
      * @throws PlayerDidNotHaveAnyPositionsYet The Player did not have an initial position.
      */
     public void resetInitialPosition() throws PlayerDidNotHaveAnyPositionsYet {
 
-        if (visited.size() == 0) {
+        if (position == null) {
             throw new PlayerDidNotHaveAnyPositionsYet();
         } else {
-            visited.add(0, visited.remove(visited.size() - 1));
+            startPosition = position;
         }
     }
 
+    /**
+     * Returns what changed for the player during the current turn.
+     *
+     * @return Delta of the current turn.
+     */
+    public TurnDelta getTurnDelta() {
+        return new TurnDelta(turnStartPosition, position, visibility.getTurnRevealed());
+    }
+
+    /**
+     * Ends the turn of the player: the current position becomes the position at the start
+     * of the next turn, and the tiles revealed during the turn are forgotten, unless the
+     * visibility belongs to the team, in which case the team forgets them.
+     */
+    public void endTurn() {
+        turnStartPosition = position;
+        if (team == null) {
+            visibility.endTurn();
+        }
+    }
+
+    /**
+     * Returns the start position of the player, to which the player goes back after
+     * landing on a Water tile.
+     *
+     * @return Start position of the player (null if no position was set).
+     */
+    public Position getStartPosition() {
+        return startPosition;
+    }
+
     /**
      * Sets the current position of the player to the exact specified position, irrelevant
      * to where the player currently is. Besides setting the position, the new position is
-     * added to the list of visited positions.
+     * visited, and becomes the start position if it is the first position of the player.
      *
      * @param p The position that the current player position will be set to.
      * @return True if the position is successfully set or false if the position is null.
@@ -95,17 +210,27 @@ public class Player {
         if (p == null) {
             return false;
         } else {
+            if (moveLog != null) {
+                moveLog.record(position, p);
+            }
+            if (startPosition == null) {
+                startPosition = p;
+            }
             position = p;
-            visited.add(position);
+            if (occupancy != null) {
+                occupancy.move(this, p.getX(), p.getY());
+            }
             if (team != null) {
                 team.send(position, this);
+            } else {
+                visibility.reveal(position.getX(), position.getY());
             }
             return true;
         }
     }
 
     /**
-     * Adds a position to the player's visited list without moving the position of the player.
+     * Visits a position without moving the position of the player.
      * This is used by the team when it distributes a new position explored by a team member.
      *
      * @param p The position to be added.
@@ -116,11 +241,48 @@ public class Player {
         if (p == null) {
             return false;
         } else {
-            visited.add(p);
+            visibility.reveal(p.getX(), p.getY());
             return true;
         }
     }
 
+    /**
+     * Keeps a position until the team of the player is flushed. Used by the team in
+     * batched mode.
+     *
+     * @param p The position to be kept.
+     */
+    void bufferPosition(final Position p) {
+        if (bufferedPositions == null) {
+            bufferedPositions = new PositionSet();
+        }
+        bufferedPositions.add(p.getX(), p.getY());
+    }
+
+    /**
+     * Returns the positions kept until the team of the player is flushed.
+     *
+     * @return The buffered positions, or null if the player never buffered any.
+     */
+    PositionSet getBufferedPositions() {
+        return bufferedPositions;
+    }
+
+    /**
+     * Reveals the buffered positions in the given visibility and empties the buffer.
+     * Used by the team when it is flushed.
+     *
+     * @param teamVisibility Visibility of the team.
+     */
+    void flushBufferedPositions(final Visibility teamVisibility) {
+        if (bufferedPositions != null && !bufferedPositions.isEmpty()) {
+            for (int slot = bufferedPositions.nextSlot(0); slot >= 0; slot = bufferedPositions.nextSlot(slot + 1)) {
+                teamVisibility.reveal(bufferedPositions.getX(slot), bufferedPositions.getY(slot));
+            }
+            bufferedPositions.clear();
+        }
+    }
+
     /**
      * Returns the current position of the player.
      *
@@ -138,35 +300,30 @@ public class Player {
 
     /**
      * Checks if the specified coordinates were ever visited by the player using the
-     * list of visited positions and trying to match the coordinates with a position.
+     * visibility of the player, and the positions the player buffered for its team.
      *
      * @param x x coordinate of the position to check.
      * @param y y coordinate of the position to check.
      * @return True if the position was visited, or false otherwise.
-     * @throws PositionIsOutOfRange Position violates the bounds of the map.
+     * @throws PositionIsOutOfRange Position violates the bounds of the map, or the player
+     * has no map yet.
      */
     public boolean wasVisited(final int x, final int y) throws PositionIsOutOfRange {
 
         // Check that the map bounds are not violated
-        if (x < 0 || y < 0 || x >= Map.getSize() || y >= Map.getSize()) {
+        final int mapSize = map == null ? 0 : map.getSize();
+        if (x < 0 || y < 0 || x >= mapSize || y >= mapSize) {
             throw new PositionIsOutOfRange(x, y);
         } else {
-            // Set the coordinates as a position and compare to all visited positions
-            final Position toCheck = new Position(x, y);
-            for (final Position position : visited) {
-                if (position.equals(toCheck)) {
-                    return true;
-                }
-            }
-            return false; // location not visited
+            return visibility.isRevealed(x, y) || (bufferedPositions != null && bufferedPositions.contains(x, y));
         }
     }
 
     /**
-     * Sets the player's position to the start position. Using the list of visited
-     * tiles, the start position is the first position inserted in the list.
+     * Sets the player's position to the start position, which is the first position
+     * set unless resetInitialPosition() was called.
      */
     public void backToStartPosition() {
-        setPosition(visited.get(0));
+        setPosition(startPosition);
     }
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+import exceptions.NotEnoughGrassTiles;
+import exceptions.PositionIsOutOfRange;
+import exceptions.SizeOfMapWasNotSet;
+
+import java.util.Arrays;
+
+/**
+ * Stores the players of games with thousands of computer controlled players. Instead of one
+ * Player object per player, the ID, team, position and start position of every player are
+ * kept in parallel primitive arrays, and a player is referred to by its index in the
+ * registry. moveAll(...) and resolveAll(...) move and resolve every player in one loop over
+ * the arrays, following the same rules as Game does for its players. Unlike in Game, several
+ * players of the registry can stand on the same tile.
+ */
+public class PlayerRegistry {
+
+    /**
+     * Team of the players that are not in a team.
+     */
+    public static final int NO_TEAM = 0;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Map map;
+    private int size = 0;
+
+    /**
+     * The players, one entry per index. Start positions are packed using Position.pack(...)
+     * since they are only read when a player lands on water.
+     */
+    private int[] ids, teams, xs, ys;
+    private long[] starts;
+
+    /**
+     * @param map: The generated map the players play on.
+     */
+    public PlayerRegistry(final Map map) {
+        this(map, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param map: The generated map the players play on.
+     * @param expectedPlayers: Number of players for which space is allocated up front.
+     */
+    public PlayerRegistry(final Map map, final int expectedPlayers) {
+        final int capacity = Math.max(1, expectedPlayers);
+
+        this.map = map;
+        ids = new int[capacity];
+        teams = new int[capacity];
+        xs = new int[capacity];
+        ys = new int[capacity];
+        starts = new long[capacity];
+    }
+
+    /**
+     * Adds a player starting at the specified coordinates.
+     *
+     * @param ID: ID of the player.
+     * @param team: ID of the team of the player, or NO_TEAM.
+     * @param x: The x-coordinate of the start position.
+     * @param y: The y-coordinate of the start position.
+     * @return Index of the player in the registry.
+     * @throws PositionIsOutOfRange: The coordinates are outside of the map.
+     */
+    public int add(final int ID, final int team, final int x, final int y) throws PositionIsOutOfRange {
+        if (x < 0 || x >= map.getSize() || y < 0 || y >= map.getSize()) {
+            throw new PositionIsOutOfRange(x, y);
+        }
+        if (size == ids.length) {
+            final int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            teams = Arrays.copyOf(teams, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+        }
+        ids[size] = ID;
+        teams[size] = team;
+        xs[size] = x;
+        ys[size] = y;
+        starts[size] = Position.pack(x, y);
+        return size++;
+    }
+
+    /**
+     * Adds a player starting at a random Green Tile from which the treasure can be reached
+     * (if the distances to the treasure were computed), as Map does for the players of Game.
+     *
+     * @param ID: ID of the player.
+     * @param team: ID of the team of the player, or NO_TEAM.
+     * @return Index of the player in the registry.
+     * @throws PositionIsOutOfRange: The x, y coordinates generated are incorrect.
+     * @throws SizeOfMapWasNotSet: Size of map was not beforehand.
+     * @throws NotEnoughGrassTiles: The map has no Green Tile, or none was found.
+     */
+    public int spawn(final int ID, final int team)
+            throws PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        final long tile = map.pickSpawnTile();
+
+        return add(ID, team, Position.unpackX(tile), Position.unpackY(tile));
+    }
+
+    /**
+     * Moves every player one tile in its direction. A player whose direction is null, or
+     * whose move would leave the map, stays where it is.
+     *
+     * @param directions: Direction of every player, by index.
+     * @return Number of players that moved.
+     */
+    public int moveAll(final Game.MOVE_DIRECTION[] directions) {
+        final int last = map.getSize() - 1;
+        int moved = 0;
+
+        for (int i = 0; i < size; i++) {
+            final Game.MOVE_DIRECTION dir = directions[i];
+
+            if (dir == null) {
+                continue;
+            }
+            switch (dir) {
+                case UP:
+                    if (ys[i] > 0) {
+                        ys[i]--;
+                        moved++;
+                    }
+                    break;
+                case DOWN:
+                    if (ys[i] < last) {
+                        ys[i]++;
+                        moved++;
+                    }
+                    break;
+                case LEFT:
+                    if (xs[i] > 0) {
+                        xs[i]--;
+                        moved++;
+                    }
+                    break;
+                case RIGHT:
+                    if (xs[i] < last) {
+                        xs[i]++;
+                        moved++;
+                    }
+                    break;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Checks where every player landed. Players on water go back to their start position
+     * and the indexes of the players on the treasure are written to winners.
+     *
+     * @param winners: Receives the indexes of the winners, needs space for every player.
+     * @return Number of winners written to winners.
+     */
+    public int resolveAll(final int[] winners) {
+        final TileStorage tiles = map.tiles;
+        int count = 0;
+
+        for (int i = 0; i < size; i++) {
+            switch (tiles.getTile(xs[i], ys[i])) {
+                case TREASURE:
+                    winners[count++] = i;
+                    break;
+                case WATER:
+                    xs[i] = Position.unpackX(starts[i]);
+                    ys[i] = Position.unpackY(starts[i]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of players in the registry.
+     *
+     * @return Number of players.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ID of the player at the specified index.
+     *
+     * @param index: Index of the player.
+     * @return ID of the player.
+     */
+    public int getID(final int index) {
+        return ids[check(index)];
+    }
+
+    /**
+     * Returns the team ID of the player at the specified index.
+     *
+     * @param index: Index of the player.
+     * @return ID of the team, or NO_TEAM.
+     */
+    public int getTeam(final int index) {
+        return teams[check(index)];
+    }
+
+    /**
+     * Returns the x-coordinate of the player at the specified index.
+     *
+     * @param index: Index of the player.
+     * @return The x-coordinate.
+     */
+    public int getX(final int index) {
+        return xs[check(index)];
+    }
+
+    /**
+     * Returns the y-coordinate of the player at the specified index.
+     *
+     * @param index: Index of the player.
+     * @return The y-coordinate.
+     */
+    public int getY(final int index) {
+        return ys[check(index)];
+    }
+
+    /**
+     * Returns the current position of the player at the specified index.
+     *
+     * @param index: Index of the player.
+     * @return Current position.
+     */
+    public Position getPosition(final int index) {
+        return Position.valueOf(xs[check(index)], ys[index]);
+    }
+
+    /**
+     * Returns the start position of the player at the specified index.
+     *
+     * @param index: Index of the player.
+     * @return Start position.
+     */
+    public Position getStartPosition(final int index) {
+        return Position.valueOf(starts[check(index)]);
+    }
+
+    /**
+     * Checks that the index is one of a player, since the arrays are larger than the
+     * number of players.
+     */
+    private int check(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+}
@@ -1,12 +1,22 @@
 /**
  * Stores the x and y coordinates of a location and provides a function to check if two
  * positions are equal. It is intended to be used for player positions but is also used
- * for tile positions, especially in tests.
+ * for tile positions, especially in tests. The coordinates can also be packed into a
+ * single long, and valueOf(...) returns shared positions for the tiles of usual maps so
+ * that moving a player does not allocate.
  *
  * @author Miguel Dingli
  */
 public class Position {
 
+    /**
+     * Positions with both coordinates below CACHE_SIZE are shared. They are created the
+     * first time they are asked for, and since a Position never changes it does not
+     * matter if two threads create the same one.
+     */
+    private static final int CACHE_SIZE = 256;
+    private static final Position[] CACHE = new Position[CACHE_SIZE * CACHE_SIZE];
+
     /**
      * The constant x and y coordinates
      */
@@ -23,6 +33,92 @@ public class Position {
         this.y = y;
     }
 
+    /**
+     * Returns a position with the given coordinates, shared with every other caller if the
+     * coordinates are those of a tile of a usual map.
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return Position with the given coordinates.
+     */
+    public static Position valueOf(final int x, final int y) {
+        if (x < 0 || y < 0 || x >= CACHE_SIZE || y >= CACHE_SIZE) {
+            return new Position(x, y);
+        }
+        Position position = CACHE[y * CACHE_SIZE + x];
+        if (position == null) {
+            position = new Position(x, y);
+            CACHE[y * CACHE_SIZE + x] = position;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the position of packed coordinates.
+     *
+     * @param packed Coordinates packed by pack(...).
+     * @return Position with the packed coordinates.
+     */
+    public static Position valueOf(final long packed) {
+        return valueOf(unpackX(packed), unpackY(packed));
+    }
+
+    /**
+     * Packs coordinates into a long, x in the high 32 bits and y in the low 32 bits.
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return Packed coordinates.
+     */
+    public static long pack(final int x, final int y) {
+        return ((long) x << Integer.SIZE) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the x-coordinate of packed coordinates.
+     *
+     * @param packed Packed coordinates.
+     * @return x-coordinate
+     */
+    public static int unpackX(final long packed) {
+        return (int) (packed >> Integer.SIZE);
+    }
+
+    /**
+     * Returns the y-coordinate of packed coordinates.
+     *
+     * @param packed Packed coordinates.
+     * @return y-coordinate
+     */
+    public static int unpackY(final long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Returns a hash of packed coordinates with all the bits spread (the finaliser of
+     * MurmurHash3), since neighbouring tiles only differ in their low bits.
+     *
+     * @param packed Packed coordinates.
+     * @return Hash of the coordinates.
+     */
+    public static int hash(long packed) {
+        packed ^= packed >>> 33;
+        packed *= 0xff51afd7ed558ccdL;
+        packed ^= packed >>> 33;
+        packed *= 0xc4ceb9fe1a85ec53L;
+        packed ^= packed >>> 33;
+        return (int) packed;
+    }
+
+    /**
+     * Returns the coordinates of the position packed into a long.
+     *
+     * @return Packed coordinates.
+     */
+    public long pack() {
+        return pack(x, y);
+    }
+
     /**
      * Returns the x-coordinate of the position.
      *
@@ -60,4 +156,15 @@ public class Position {
             return this.x == pos.getX() && this.y == pos.getY();
         }
     }
+
+    /**
+     * Returns a hash code which is equal for equal positions, so that positions can be
+     * used in hash based collections.
+     *
+     * @return Hash code of the coordinates.
+     */
+    @Override
+    public int hashCode() {
+        return hash(pack(x, y));
+    }
 }
\ No newline at end of file
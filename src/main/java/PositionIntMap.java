@@ -0,0 +1,191 @@
+/**
+ * Map from coordinates to ints, stored like a {@link PositionSet} with the values in a
+ * parallel array, so that neither the keys nor the values are boxed. A missing entry is
+ * reported as the missing value given to the constructor. It is not thread-safe.
+ */
+public class PositionIntMap {
+
+    private final int missingValue;
+    private long[] keys;
+    private int[] values;
+    private int size = 0;
+
+    /**
+     * @param missingValue: Value returned for coordinates which are not in the map.
+     */
+    public PositionIntMap(final int missingValue) {
+        this(missingValue, 0);
+    }
+
+    /**
+     * @param missingValue: Value returned for coordinates which are not in the map.
+     * @param expected: Number of entries expected, so that the table does not grow.
+     */
+    public PositionIntMap(final int missingValue, final int expected) {
+        this.missingValue = missingValue;
+        this.keys = PositionSet.newKeys(PositionSet.capacityFor(expected));
+        this.values = new int[keys.length];
+    }
+
+    /**
+     * Returns the value of the coordinates.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return The value, or the missing value if the coordinates are not in the map.
+     */
+    public int get(final int x, final int y) {
+        final long key = PositionSet.key(x, y);
+        final int slot = PositionSet.slot(keys, key);
+
+        return keys[slot] == key ? values[slot] : missingValue;
+    }
+
+    /**
+     * Returns whether the coordinates are in the map.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return True if the coordinates have a value.
+     */
+    public boolean containsKey(final int x, final int y) {
+        final long key = PositionSet.key(x, y);
+        return keys[PositionSet.slot(keys, key)] == key;
+    }
+
+    /**
+     * Sets the value of the coordinates.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @param value: The new value.
+     * @return The previous value, or the missing value if the coordinates were not in the map.
+     */
+    public int put(final int x, final int y, final int value) {
+        final long key = PositionSet.key(x, y);
+        final int slot = PositionSet.slot(keys, key);
+
+        if (keys[slot] == key) {
+            final int previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 3 > keys.length * 2) {
+            grow();
+        }
+        return missingValue;
+    }
+
+    /**
+     * Adds to the value of the coordinates, starting from 0 if they are not in the map.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @param delta: Amount to add.
+     * @return The new value.
+     */
+    public int addTo(final int x, final int y, final int delta) {
+        final long key = PositionSet.key(x, y);
+        final int slot = PositionSet.slot(keys, key);
+
+        if (keys[slot] == key) {
+            return values[slot] += delta;
+        }
+        put(x, y, delta);
+        return delta;
+    }
+
+    /**
+     * Removes the coordinates from the map.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return The removed value, or the missing value if the coordinates were not in the map.
+     */
+    public int remove(final int x, final int y) {
+        final long key = PositionSet.key(x, y);
+        final int slot = PositionSet.slot(keys, key);
+
+        if (keys[slot] != key) {
+            return missingValue;
+        }
+        final int previous = values[slot];
+        PositionSet.removeSlot(keys, slot, values);
+        size--;
+        return previous;
+    }
+
+    /**
+     * Returns the number of coordinates in the map.
+     *
+     * @return Size of the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the first used slot at or after the given slot, as for a PositionSet.
+     *
+     * @param from: Slot to start from.
+     * @return The slot, or -1 if there is none.
+     */
+    public int nextSlot(final int from) {
+        for (int slot = Math.max(0, from); slot < keys.length; slot++) {
+            if (keys[slot] != PositionSet.FREE) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the x-coordinate stored in a used slot.
+     *
+     * @param slot: A slot returned by nextSlot().
+     * @return The x-coordinate.
+     */
+    public int getX(final int slot) {
+        return Position.unpackX(keys[slot]);
+    }
+
+    /**
+     * Returns the y-coordinate stored in a used slot.
+     *
+     * @param slot: A slot returned by nextSlot().
+     * @return The y-coordinate.
+     */
+    public int getY(final int slot) {
+        return Position.unpackY(keys[slot]);
+    }
+
+    /**
+     * Returns the value stored in a used slot.
+     *
+     * @param slot: A slot returned by nextSlot().
+     * @return The value.
+     */
+    public int getValue(final int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Helper method to double the table.
+     */
+    private void grow() {
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+
+        keys = PositionSet.newKeys(oldKeys.length * 2);
+        values = new int[keys.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != PositionSet.FREE) {
+                final int slot = PositionSet.slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
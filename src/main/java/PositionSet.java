@@ -0,0 +1,229 @@
+import java.util.Arrays;
+
+/**
+ * Set of coordinates stored as packed longs (see {@link Position#pack(int, int)}) in one
+ * open addressing table with linear probing, so that adding or finding a tile allocates
+ * nothing and needs no Position or Long objects. Entries are gone through by slot:
+ * <p>
+ * for (int slot = set.nextSlot(0); slot >= 0; slot = set.nextSlot(slot + 1)) { set.getX(slot) ... }
+ * <p>
+ * The coordinates (Integer.MIN_VALUE, 0) mark free slots and cannot be stored. It is not
+ * thread-safe.
+ */
+public class PositionSet {
+
+    static final long FREE = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int size = 0;
+
+    /**
+     * Creates an empty set.
+     */
+    public PositionSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expected: Number of coordinates expected, so that the table does not grow.
+     */
+    public PositionSet(final int expected) {
+        keys = newKeys(capacityFor(expected));
+    }
+
+    /**
+     * Adds coordinates to the set.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return True if the coordinates were not in the set.
+     */
+    public boolean add(final int x, final int y) {
+        final long key = key(x, y);
+        int slot = slot(keys, key);
+
+        if (keys[slot] == key) {
+            return false;
+        }
+        keys[slot] = key;
+        if (++size * 3 > keys.length * 2) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the coordinates are in the set.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return True if the coordinates are in the set.
+     */
+    public boolean contains(final int x, final int y) {
+        final long key = key(x, y);
+        return keys[slot(keys, key)] == key;
+    }
+
+    /**
+     * Removes coordinates from the set, moving back the entries probed after them.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return True if the coordinates were in the set.
+     */
+    public boolean remove(final int x, final int y) {
+        final long key = key(x, y);
+        final int slot = slot(keys, key);
+
+        if (keys[slot] != key) {
+            return false;
+        }
+        removeSlot(keys, slot, null);
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of coordinates in the set.
+     *
+     * @return Size of the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the set has no coordinates.
+     *
+     * @return True if the set is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the coordinates, keeping the table.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    /**
+     * Returns the first used slot at or after the given slot.
+     *
+     * @param from: Slot to start from.
+     * @return The slot, or -1 if there is none.
+     */
+    public int nextSlot(final int from) {
+        for (int slot = Math.max(0, from); slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the x-coordinate stored in a used slot.
+     *
+     * @param slot: A slot returned by nextSlot().
+     * @return The x-coordinate.
+     */
+    public int getX(final int slot) {
+        return Position.unpackX(keys[slot]);
+    }
+
+    /**
+     * Returns the y-coordinate stored in a used slot.
+     *
+     * @param slot: A slot returned by nextSlot().
+     * @return The y-coordinate.
+     */
+    public int getY(final int slot) {
+        return Position.unpackY(keys[slot]);
+    }
+
+    /**
+     * Helper method to double the table.
+     */
+    private void grow() {
+        final long[] old = keys;
+
+        keys = newKeys(old.length * 2);
+        for (final long key : old) {
+            if (key != FREE) {
+                keys[slot(keys, key)] = key;
+            }
+        }
+    }
+
+    /**
+     * Returns the packed coordinates, checking that they do not mark a free slot.
+     */
+    static long key(final int x, final int y) {
+        final long key = Position.pack(x, y);
+        if (key == FREE) {
+            throw new IllegalArgumentException("(" + x + ", " + y + ") cannot be stored.");
+        }
+        return key;
+    }
+
+    /**
+     * Returns the slot holding the key, or the free slot where it would go.
+     */
+    static int slot(final long[] keys, final long key) {
+        final int mask = keys.length - 1;
+        int slot = Position.hash(key) & mask;
+
+        while (keys[slot] != key && keys[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Frees a slot, then moves back every entry after it which would not be found
+     * anymore, so that no tombstones are needed. Values, if any, are moved along.
+     */
+    static void removeSlot(final long[] keys, int free, final int[] values) {
+        final int mask = keys.length - 1;
+        int slot = free;
+
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (keys[slot] == FREE) {
+                break;
+            }
+            final int home = Position.hash(keys[slot]) & mask;
+            // Move the entry back unless its home is cyclically within (free, slot]
+            if (free <= slot ? (home <= free || home > slot) : (home <= free && home > slot)) {
+                keys[free] = keys[slot];
+                if (values != null) {
+                    values[free] = values[slot];
+                }
+                free = slot;
+            }
+        }
+        keys[free] = FREE;
+    }
+
+    static long[] newKeys(final int capacity) {
+        final long[] keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        return keys;
+    }
+
+    /**
+     * Returns the smallest power of two table holding the expected entries at 2/3 load.
+     */
+    static int capacityFor(final int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 2L < expected * 3L) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+}
@@ -0,0 +1,50 @@
+import java.util.Random;
+
+/**
+ * Adds rivers flowing from the top row to the bottom one. Every river starts on a random
+ * column and moves at most one column left or right on every row. Some rows are left dry
+ * as fords, so that a river does not always cut the map in two.
+ */
+public class RiverStage implements GenerationStage {
+
+    /**
+     * One row in FORD_CHANCE is a ford.
+     */
+    private static final int FORD_CHANCE = 12;
+
+    private final int rivers;
+    private Random rand;
+    private int[] columns;
+
+    /**
+     * @param rivers: Number of rivers.
+     */
+    public RiverStage(final int rivers) {
+        this.rivers = rivers;
+    }
+
+    @Override
+    public void start(final int size, final Random rand) {
+        this.rand = rand;
+        columns = new int[rivers];
+        for (int i = 0; i < rivers; i++) {
+            columns[i] = rand.nextInt(size);
+        }
+    }
+
+    @Override
+    public void transformRow(final int y, final Map.TILE_TYPE[] row) {
+        for (int i = 0; i < columns.length; i++) {
+            if (rand.nextInt(FORD_CHANCE) != 0) {
+                row[columns[i]] = Map.TILE_TYPE.WATER;
+            }
+            columns[i] = Math.max(0, Math.min(row.length - 1, columns[i] + rand.nextInt(3) - 1));
+        }
+    }
+
+    @Override
+    public void finish(final TileStorage tiles) {
+        rand = null;
+        columns = null;
+    }
+}
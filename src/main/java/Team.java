@@ -7,15 +7,30 @@ import java.util.List;
  * to add a player to the team (used in the game setup), and since this class makes use of
  * a Mediator design pattern, it also has a send(...) method that is used by players to
  * send a position to their team so that it is distributed to the other players in the team.
+ * The players of the team share the visibility of the team, so distributing a position is
+ * a single reveal which every player of the team sees. In batched mode the positions are
+ * instead kept by every player until flush() merges them all once per turn.
  */
 public class Team {
 
+    /**
+     * How positions sent by the players reach the team.
+     * IMMEDIATE: every position is revealed to the team as soon as it is sent.
+     * BATCHED: positions are buffered by the players and revealed when the team is flushed.
+     */
+    public enum SYNC_MODE {
+        IMMEDIATE,
+        BATCHED
+    }
+
     /**
      * Team ID and list of players in the team. A new player is
      * added to this list by using the addPlayer(...) method.
      */
     private final int ID;
     private final List<Player> playerList = new ArrayList<Player>();
+    private final Visibility visibility = new Visibility();
+    private SYNC_MODE syncMode = SYNC_MODE.IMMEDIATE;
 
     /**
      * Constructor which simply sets the ID of the team.
@@ -44,6 +59,54 @@ public class Team {
         playerList.add(player);
     }
 
+    /**
+     * Returns the tiles revealed to the team, shared by all the players of the team.
+     *
+     * @return Visibility of the team.
+     */
+    public Visibility getVisibility() {
+        return visibility;
+    }
+
+    /**
+     * Returns how positions sent by the players reach the team.
+     *
+     * @return Sync mode of the team.
+     */
+    public SYNC_MODE getSyncMode() {
+        return syncMode;
+    }
+
+    /**
+     * Sets how positions sent by the players reach the team. Positions buffered so far
+     * are revealed when switching back to immediate mode.
+     *
+     * @param syncMode Sync mode of the team.
+     */
+    public void setSyncMode(final SYNC_MODE syncMode) {
+        this.syncMode = syncMode;
+        if (syncMode == SYNC_MODE.IMMEDIATE) {
+            flush();
+        }
+    }
+
+    /**
+     * Reveals the positions buffered by all the players of the team in batched mode,
+     * in a single pass.
+     */
+    public void flush() {
+        for (final Player p : playerList) {
+            p.flushBufferedPositions(visibility);
+        }
+    }
+
+    /**
+     * Ends the turn of the team, forgetting the tiles the team revealed during the turn.
+     */
+    public void endTurn() {
+        visibility.endTurn();
+    }
+
     /**
      * Returns the list of players in the team.
      *
@@ -55,18 +118,18 @@ public class Team {
 
     /**
      * The Mediator method used to distribute a new position that a player in the
-     * team visited. The player object supplies the position and a reference to
-     * itself so that the position is sent to all players except for this player.
+     * team visited. The position is revealed once in the visibility of the team,
+     * which all the players of the team share, whichever player visited it. In batched
+     * mode the player buffers the position until the team is flushed instead.
      *
      * @param position New position to be distributed.
      * @param player Player that visited the new position.
      */
     public void send(final Position position, final Player player) {
-
-        for (final Player p : playerList) {
-            if (p.getID() != player.getID()) {
-                p.addPosition(position);
-            }
+        if (syncMode == SYNC_MODE.BATCHED) {
+            player.bufferPosition(position);
+        } else {
+            visibility.reveal(position.getX(), position.getY());
         }
     }
 }
@@ -0,0 +1,25 @@
+/**
+ * Backing store for the tiles of a {@link Map}. Implementations decide how the tiles
+ * are laid out in memory. Coordinates are not checked by the storage since
+ * {@link Map#getTileType(int, int)} already checks them against the size of the map.
+ */
+public interface TileStorage {
+
+    /**
+     * Returns the type of the tile found at the specified coordinates.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return The type of the tile.
+     */
+    Map.TILE_TYPE getTile(final int x, final int y);
+
+    /**
+     * Changes the type of the tile found at the specified coordinates.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @param type: The new type of the tile.
+     */
+    void setTile(final int x, final int y, final Map.TILE_TYPE type);
+}
@@ -0,0 +1,53 @@
+import java.util.Random;
+
+/**
+ * Places the Treasure tile on a Grass tile picked uniformly while streaming, by reservoir
+ * sampling: the n-th Grass tile replaces the pick with a probability of 1/n. The pick is
+ * only known once every row was seen, so the tile is changed in finish(), and the stage
+ * should be the last of the pipeline. If there is no Grass at all, any tile is used.
+ */
+public class TreasureStage implements GenerationStage {
+
+    private Random rand;
+    private long grassTiles, tilesSeen;
+    private int grassX, grassY, anyX, anyY;
+
+    @Override
+    public void start(final int size, final Random rand) {
+        this.rand = rand;
+        grassTiles = 0;
+        tilesSeen = 0;
+    }
+
+    @Override
+    public void transformRow(final int y, final Map.TILE_TYPE[] row) {
+        for (int x = 0; x < row.length; x++) {
+            if (row[x] == Map.TILE_TYPE.GRASS) {
+                if (nextLong(++grassTiles) == 0) {
+                    grassX = x;
+                    grassY = y;
+                }
+            } else if (grassTiles == 0 && nextLong(++tilesSeen) == 0) {
+                anyX = x;
+                anyY = y;
+            }
+        }
+    }
+
+    @Override
+    public void finish(final TileStorage tiles) {
+        if (grassTiles > 0) {
+            tiles.setTile(grassX, grassY, Map.TILE_TYPE.TREASURE);
+        } else if (tilesSeen > 0) {
+            tiles.setTile(anyX, anyY, Map.TILE_TYPE.TREASURE);
+        }
+        rand = null;
+    }
+
+    /**
+     * Helper method returning a random number between 0 (inclusive) and bound (exclusive).
+     */
+    private long nextLong(final long bound) {
+        return bound <= Integer.MAX_VALUE ? rand.nextInt((int) bound) : (long) (rand.nextDouble() * bound);
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * What changed for a player during the current turn: the position at the start of the
+ * turn, the current position, and the tiles revealed for the first time (by the player or,
+ * in collaborative mode, by the team). It is a view on the state of the player, so it is
+ * only valid until the turn ends.
+ */
+public class TurnDelta {
+
+    private final Position previousPosition, position;
+    private final PositionSet revealed;
+
+    /**
+     * @param previousPosition: Position at the start of the turn (null if none).
+     * @param position: Current position (null if none).
+     * @param revealed: Tiles revealed during the turn.
+     */
+    public TurnDelta(final Position previousPosition, final Position position, final PositionSet revealed) {
+        this.previousPosition = previousPosition;
+        this.position = position;
+        this.revealed = revealed;
+    }
+
+    /**
+     * Returns the position of the player at the start of the turn.
+     *
+     * @return Previous position (null if the player had no position).
+     */
+    public Position getPreviousPosition() {
+        return previousPosition;
+    }
+
+    /**
+     * Returns the current position of the player.
+     *
+     * @return Current position (null if the player has no position).
+     */
+    public Position getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns whether the player moved during the turn.
+     *
+     * @return True if the position changed.
+     */
+    public boolean hasMoved() {
+        return position != null && !position.equals(previousPosition);
+    }
+
+    /**
+     * Returns the tiles revealed during the turn, which must only be read.
+     *
+     * @return Newly revealed tiles.
+     */
+    public PositionSet getRevealed() {
+        return revealed;
+    }
+}
@@ -0,0 +1,255 @@
+import exceptions.InitialPlayerPositionWasNotSet;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * What the players see at the end of a turn: the tiles of the map, and the ID, team,
+ * position and revealed tiles of every player, copied into flat arrays once per turn. The
+ * tiles do not change once the map is generated, so they are only taken once per map and
+ * are shared by its snapshots. What changed for every player during the turn is also kept,
+ * that is the position at the start of the turn and the tiles revealed during the turn, so
+ * that only those can be drawn. A snapshot never changes and does not refer back to the map
+ * or the players, so it can be read by renderers on other threads while the game goes on
+ * with the next turn. Players sharing a visibility, such as the players of a team, share
+ * one copy of it.
+ */
+public class TurnSnapshot {
+
+    /**
+     * Team ID of the players that are not in a team.
+     */
+    public static final int NO_TEAM = 0;
+
+    private final int size;
+
+    /**
+     * Ordinal of the type of every tile, row by row (y * size + x), shared with the other
+     * snapshots of the map since the tiles do not change.
+     */
+    private final byte[] tiles;
+
+    /**
+     * The players by index, in the order they were given. The revealed tiles are one bit
+     * per tile, laid out like the tiles, and the tiles revealed during the turn are the
+     * indexes of the tiles (y * size + x).
+     */
+    private final int[] ids, teams, xs, ys, previousXs, previousYs;
+    private final long[][] revealed;
+    private final int[][] turnRevealed;
+
+    /**
+     * Takes the tiles of the map and copies the players. The map must be generated and small
+     * enough to be rendered in full, and every player must have a position.
+     *
+     * @param map: The map the players play on.
+     * @param players: The players, whose indexes are kept by the snapshot.
+     * @throws InitialPlayerPositionWasNotSet: One of the players has no position.
+     */
+    public TurnSnapshot(final Map map, final Player[] players) {
+        final IdentityHashMap<Visibility, long[]> copies = new IdentityHashMap<Visibility, long[]>();
+        final IdentityHashMap<Visibility, int[]> turnCopies = new IdentityHashMap<Visibility, int[]>();
+
+        size = map.getSize();
+        tiles = map.getTileOrdinals();
+
+        ids = new int[players.length];
+        teams = new int[players.length];
+        xs = new int[players.length];
+        ys = new int[players.length];
+        previousXs = new int[players.length];
+        previousYs = new int[players.length];
+        revealed = new long[players.length][];
+        turnRevealed = new int[players.length][];
+        for (int i = 0; i < players.length; i++) {
+            final Player player = players[i];
+            final Position position = player.getPosition();
+            final TurnDelta delta = player.getTurnDelta();
+            final Position previous = delta.getPreviousPosition() == null ? position : delta.getPreviousPosition();
+            final PositionSet buffered = player.getBufferedPositions();
+            long[] bits = copies.get(player.getVisibility());
+            int[] turnTiles = turnCopies.get(player.getVisibility());
+
+            if (bits == null) {
+                bits = player.getVisibility().copyBits(size);
+                copies.put(player.getVisibility(), bits);
+                turnTiles = copyIndexes(delta.getRevealed(), 0);
+                turnCopies.put(player.getVisibility(), turnTiles);
+            }
+            // Positions buffered for the team are only seen by the player that buffered them
+            if (buffered != null && !buffered.isEmpty()) {
+                final int[] bufferedTiles = copyIndexes(buffered, turnTiles.length);
+                System.arraycopy(turnTiles, 0, bufferedTiles, 0, turnTiles.length);
+                turnTiles = bufferedTiles;
+                bits = bits.clone();
+                for (int slot = buffered.nextSlot(0); slot >= 0; slot = buffered.nextSlot(slot + 1)) {
+                    Visibility.setBit(bits, size, buffered.getX(slot), buffered.getY(slot));
+                }
+            }
+            ids[i] = player.getID();
+            teams[i] = player.getTeam() == null ? NO_TEAM : player.getTeam().getID();
+            xs[i] = position.getX();
+            ys[i] = position.getY();
+            previousXs[i] = previous.getX();
+            previousYs[i] = previous.getY();
+            revealed[i] = bits;
+            turnRevealed[i] = turnTiles;
+        }
+    }
+
+    /**
+     * Copies the tiles of a set that are on the map as tile indexes (y * size + x), after
+     * the given number of free entries.
+     */
+    private int[] copyIndexes(final PositionSet set, final int offset) {
+        final int[] indexes = new int[offset + set.size()];
+        int count = offset;
+
+        for (int slot = set.nextSlot(0); slot >= 0; slot = set.nextSlot(slot + 1)) {
+            final int x = set.getX(slot), y = set.getY(slot);
+            if (x >= 0 && x < size && y >= 0 && y < size) {
+                indexes[count++] = y * size + x;
+            }
+        }
+        return count == indexes.length ? indexes : Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * Returns the size of the map.
+     *
+     * @return Width and height of the map in tiles.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the type of the tile found at the specified coordinates.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return The type of the tile.
+     */
+    public Map.TILE_TYPE getTile(final int x, final int y) {
+        return Map.TILE_TYPES[tiles[y * size + x]];
+    }
+
+    /**
+     * Returns the number of players in the snapshot.
+     *
+     * @return Number of players.
+     */
+    public int getPlayerCount() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the ID of the player at the specified index.
+     *
+     * @param player: Index of the player.
+     * @return ID of the player.
+     */
+    public int getPlayerID(final int player) {
+        return ids[player];
+    }
+
+    /**
+     * Returns the team ID of the player at the specified index.
+     *
+     * @param player: Index of the player.
+     * @return ID of the team, or NO_TEAM.
+     */
+    public int getTeamID(final int player) {
+        return teams[player];
+    }
+
+    /**
+     * Returns the x-coordinate of the player at the specified index.
+     *
+     * @param player: Index of the player.
+     * @return The x-coordinate.
+     */
+    public int getX(final int player) {
+        return xs[player];
+    }
+
+    /**
+     * Returns the y-coordinate of the player at the specified index.
+     *
+     * @param player: Index of the player.
+     * @return The y-coordinate.
+     */
+    public int getY(final int player) {
+        return ys[player];
+    }
+
+    /**
+     * Returns the x-coordinate of the player at the specified index at the start of the turn.
+     *
+     * @param player: Index of the player.
+     * @return The x-coordinate, the current one if the player had no position then.
+     */
+    public int getPreviousX(final int player) {
+        return previousXs[player];
+    }
+
+    /**
+     * Returns the y-coordinate of the player at the specified index at the start of the turn.
+     *
+     * @param player: Index of the player.
+     * @return The y-coordinate, the current one if the player had no position then.
+     */
+    public int getPreviousY(final int player) {
+        return previousYs[player];
+    }
+
+    /**
+     * Returns the number of tiles revealed to the player at the specified index during the
+     * turn.
+     *
+     * @param player: Index of the player.
+     * @return Number of tiles revealed during the turn.
+     */
+    public int getTurnRevealedCount(final int player) {
+        return turnRevealed[player].length;
+    }
+
+    /**
+     * Returns the x-coordinate of one of the tiles revealed to the player at the specified
+     * index during the turn.
+     *
+     * @param player: Index of the player.
+     * @param tile: Which of the tiles revealed during the turn, from 0.
+     * @return The x-coordinate.
+     */
+    public int getTurnRevealedX(final int player, final int tile) {
+        return turnRevealed[player][tile] % size;
+    }
+
+    /**
+     * Returns the y-coordinate of one of the tiles revealed to the player at the specified
+     * index during the turn.
+     *
+     * @param player: Index of the player.
+     * @param tile: Which of the tiles revealed during the turn, from 0.
+     * @return The y-coordinate.
+     */
+    public int getTurnRevealedY(final int player, final int tile) {
+        return turnRevealed[player][tile] / size;
+    }
+
+    /**
+     * Checks if the tile found at the specified coordinates was revealed to the player at
+     * the specified index.
+     *
+     * @param player: Index of the player.
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return True if the tile was revealed to the player.
+     */
+    public boolean isRevealed(final int player, final int x, final int y) {
+        final int index = y * size + x;
+
+        return (revealed[player][index >>> 6] & (1L << index)) != 0;
+    }
+}
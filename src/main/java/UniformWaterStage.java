@@ -0,0 +1,43 @@
+import java.util.Random;
+
+/**
+ * Turns an exact percentage of all the tiles into Water, spread uniformly. The tiles are
+ * chosen while streaming by selection sampling: a tile is picked with a probability of the
+ * tiles still needed over the tiles still to come, which picks exactly the needed amount.
+ */
+public class UniformWaterStage implements GenerationStage {
+
+    private final int percentage;
+    private Random rand;
+    private long remaining, needed;
+
+    /**
+     * @param percentage: Percentage of the tiles turned into Water (rounded to the next Integer).
+     */
+    public UniformWaterStage(final int percentage) {
+        this.percentage = percentage;
+    }
+
+    @Override
+    public void start(final int size, final Random rand) {
+        this.rand = rand;
+        remaining = (long) size * size;
+        needed = (remaining * percentage + 99) / 100;
+    }
+
+    @Override
+    public void transformRow(final int y, final Map.TILE_TYPE[] row) {
+        for (int x = 0; x < row.length && needed > 0; x++) {
+            if (rand.nextDouble() * remaining < needed) {
+                row[x] = Map.TILE_TYPE.WATER;
+                needed--;
+            }
+            remaining--;
+        }
+    }
+
+    @Override
+    public void finish(final TileStorage tiles) {
+        rand = null;
+    }
+}
@@ -0,0 +1,237 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The set of tiles revealed to a player, with one bit per tile of the map laid out row by
+ * row (y * size + x), so that checking a tile is a single array access and the revealed
+ * tiles can be gone through a word (64 tiles) at a time. Tiles revealed before the size
+ * of the map is known, and tiles of maps too large for one bit per tile, are kept in a
+ * {@link PositionSet} instead.
+ * <p>
+ * A visibility can be shared, such as by the players of a team, and revealed and read by
+ * several threads at once: bits are set with a compare-and-set, and the set is locked, so
+ * a tile revealed by one player is seen by every player sharing the visibility and no
+ * reveal is lost.
+ * <p>
+ * The tiles revealed for the first time since the end of the last turn are also kept, so
+ * that whoever only needs what changed during a turn does not go through the whole map.
+ */
+public class Visibility {
+
+    /**
+     * Largest map for which the tiles are kept as bits, that is 2 MB per player.
+     */
+    static final int MAX_BITSET_MAP_SIZE = 4096;
+
+    private static final int WORD_SHIFT = 6;
+
+    private volatile int size = 0;
+    private volatile AtomicLongArray words = null;
+    private final PositionSet sparse = new PositionSet();
+    private final PositionSet turnRevealed = new PositionSet();
+
+    /**
+     * Sets the size of the map, moving the tiles revealed so far into the bits if the map
+     * is small enough. Tiles outside of the map are dropped. Binding is expected to happen
+     * before the game starts, not while other threads reveal tiles.
+     *
+     * @param size: Width and height of the map in tiles.
+     */
+    public synchronized void bind(final int size) {
+        final PositionSet revealed = new PositionSet();
+
+        synchronized (sparse) {
+            for (int slot = sparse.nextSlot(0); slot >= 0; slot = sparse.nextSlot(slot + 1)) {
+                revealed.add(sparse.getX(slot), sparse.getY(slot));
+            }
+            sparse.clear();
+        }
+        this.words = size <= MAX_BITSET_MAP_SIZE ? new AtomicLongArray((int) (((long) size * size + 63) >>> WORD_SHIFT)) : null;
+        this.size = size;
+        for (int slot = revealed.nextSlot(0); slot >= 0; slot = revealed.nextSlot(slot + 1)) {
+            reveal(revealed.getX(slot), revealed.getY(slot));
+        }
+    }
+
+    /**
+     * Returns the size of the map the visibility was bound to, 0 if none.
+     *
+     * @return Width and height of the map in tiles.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Reveals the tile found at the specified coordinates. Coordinates outside of the bound
+     * map are ignored.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return True if the tile was not revealed before.
+     */
+    public boolean reveal(final int x, final int y) {
+        final AtomicLongArray words = this.words;
+        final int size = this.size;
+
+        boolean revealed;
+
+        if (x < 0 || y < 0 || (size != 0 && (x >= size || y >= size))) {
+            return false;
+        } else if (words != null) {
+            final int index = y * size + x;
+            final long bit = 1L << index;
+            long word;
+            do {
+                word = words.get(index >>> WORD_SHIFT);
+                revealed = (word & bit) == 0;
+            } while (revealed && !words.compareAndSet(index >>> WORD_SHIFT, word, word | bit));
+        } else {
+            synchronized (sparse) {
+                revealed = sparse.add(x, y);
+            }
+        }
+        if (revealed) {
+            synchronized (turnRevealed) {
+                turnRevealed.add(x, y);
+            }
+        }
+        return revealed;
+    }
+
+    /**
+     * Returns the tiles revealed for the first time since the last call to endTurn(). The
+     * set is the one kept by the visibility, so it must only be read, and not while tiles
+     * are being revealed.
+     *
+     * @return Tiles revealed during the current turn.
+     */
+    public PositionSet getTurnRevealed() {
+        return turnRevealed;
+    }
+
+    /**
+     * Forgets the tiles revealed during the turn, so that the next turn starts empty.
+     */
+    public void endTurn() {
+        synchronized (turnRevealed) {
+            turnRevealed.clear();
+        }
+    }
+
+    /**
+     * Returns whether the tile found at the specified coordinates was revealed. The
+     * coordinates are not checked against the size of the map.
+     *
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     * @return True if the tile was revealed.
+     */
+    public boolean isRevealed(final int x, final int y) {
+        final AtomicLongArray words = this.words;
+        final int size = this.size;
+
+        if (words != null) {
+            final int index = y * size + x;
+            return (words.get(index >>> WORD_SHIFT) & (1L << index)) != 0;
+        } else {
+            synchronized (sparse) {
+                return sparse.contains(x, y);
+            }
+        }
+    }
+
+    /**
+     * Returns the index (y * size + x) of the first revealed tile at or after the given
+     * index, skipping 64 hidden tiles at a time. Only available on maps kept as bits.
+     *
+     * @param from: Index to start from.
+     * @return Index of the revealed tile, or -1 if there is none.
+     * @throws IllegalStateException: The map is not kept as bits.
+     */
+    public int nextRevealed(final int from) {
+        final AtomicLongArray words = this.words;
+
+        if (words == null) {
+            throw new IllegalStateException("Only maps of up to " + MAX_BITSET_MAP_SIZE + " tiles are kept as bits.");
+        }
+        int word = from >>> WORD_SHIFT;
+        if (from < 0 || word >= words.length()) {
+            return -1;
+        }
+        long bits = words.get(word) & (-1L << from);
+
+        while (bits == 0) {
+            if (++word == words.length()) {
+                return -1;
+            }
+            bits = words.get(word);
+        }
+        return (word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Copies the revealed tiles into a new array of bits laid out row by row (y * size + x),
+     * for a map of the given size. Tiles outside of the map are left out.
+     *
+     * @param mapSize: Width and height of the map in tiles.
+     * @return The revealed tiles, one bit per tile.
+     */
+    public long[] copyBits(final int mapSize) {
+        final long[] bits = new long[(int) (((long) mapSize * mapSize + 63) >>> WORD_SHIFT)];
+        final AtomicLongArray words = this.words;
+        final int size = this.size;
+
+        if (words != null && size == mapSize) {
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = words.get(i);
+            }
+        } else if (words != null) {
+            for (int index = nextRevealed(0); index >= 0; index = nextRevealed(index + 1)) {
+                setBit(bits, mapSize, index % size, index / size);
+            }
+        } else {
+            synchronized (sparse) {
+                for (int slot = sparse.nextSlot(0); slot >= 0; slot = sparse.nextSlot(slot + 1)) {
+                    setBit(bits, mapSize, sparse.getX(slot), sparse.getY(slot));
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Sets the bit of a tile in an array of bits laid out like the visibility, unless the
+     * tile is outside of the map.
+     *
+     * @param bits: The array of bits.
+     * @param mapSize: Width and height of the map in tiles.
+     * @param x: The x-coordinate.
+     * @param y: The y-coordinate.
+     */
+    static void setBit(final long[] bits, final int mapSize, final int x, final int y) {
+        if (x >= 0 && x < mapSize && y >= 0 && y < mapSize) {
+            final int index = y * mapSize + x;
+            bits[index >>> WORD_SHIFT] |= 1L << index;
+        }
+    }
+
+    /**
+     * Returns the number of revealed tiles.
+     *
+     * @return Number of revealed tiles.
+     */
+    public int getRevealedCount() {
+        final AtomicLongArray words = this.words;
+
+        if (words == null) {
+            synchronized (sparse) {
+                return sparse.size();
+            }
+        }
+        int count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+}
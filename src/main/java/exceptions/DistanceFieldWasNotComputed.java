@@ -0,0 +1,12 @@
+package exceptions;
+
+/**
+ * The distances to the treasure were not computed for the map. They are only computed
+ * for maps which are generated in full (not chunked) and are not too large.
+ */
+public class DistanceFieldWasNotComputed extends RuntimeException {
+
+    public DistanceFieldWasNotComputed() {
+        super("The distances to the treasure were not computed for this map.");
+    }
+}
@@ -0,0 +1,13 @@
+package exceptions;
+
+import java.io.File;
+
+/**
+ * The file backing a memory-mapped map could not be created or mapped.
+ */
+public class MapFileWasNotAccessible extends RuntimeException {
+
+    public MapFileWasNotAccessible(final File file, final Throwable cause) {
+        super("Map file " + file + " could not be mapped.", cause);
+    }
+}
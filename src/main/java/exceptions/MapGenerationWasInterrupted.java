@@ -0,0 +1,12 @@
+package exceptions;
+
+/**
+ * The thread generating a map was interrupted while waiting for the regions of
+ * the map to be generated in parallel.
+ */
+public class MapGenerationWasInterrupted extends RuntimeException {
+
+    public MapGenerationWasInterrupted(final InterruptedException cause) {
+        super("Map generation was interrupted.", cause);
+    }
+}
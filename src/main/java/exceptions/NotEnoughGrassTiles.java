@@ -0,0 +1,18 @@
+package exceptions;
+
+/**
+ * Exception used when more players should be placed on distinct tiles
+ * than there are Grass tiles to place them on, or when no Grass tile could
+ * be found for a player.
+ */
+public class NotEnoughGrassTiles extends Exception {
+
+    public NotEnoughGrassTiles(final int players, final int grassTiles) {
+        super(players + " players cannot be placed on " + grassTiles + " Grass tiles.");
+    }
+
+    public NotEnoughGrassTiles(final int players, final int placed, final int attempts) {
+        super("Only " + placed + " of " + players + " players were placed, no Grass tile was found in "
+                + attempts + " attempts.");
+    }
+}
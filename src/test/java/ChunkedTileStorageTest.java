@@ -0,0 +1,69 @@
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests used to test the implementation of ChunkedTileStorage.
+ */
+public class ChunkedTileStorageTest {
+
+    private ChunkedTileStorage storage;
+    private int generatedChunks;
+    private final int size = 25, chunkSize = 10;
+
+    @Before
+    public void setUp() {
+        generatedChunks = 0;
+        // Every chunk gets Water on its top left tile
+        storage = new ChunkedTileStorage(size, chunkSize, new ChunkedTileStorage.ChunkGenerator() {
+            @Override
+            public void generate(final PackedTileStorage chunk, final int originX, final int originY) {
+                generatedChunks++;
+                chunk.setTile(0, 0, Map.TILE_TYPE.WATER);
+            }
+        });
+    }
+
+    @Test
+    public void getChunkCount_noChunksBeforeFirstAccess() {
+        Assert.assertTrue(storage.getChunkCount() == 0);
+    }
+
+    @Test
+    public void getTile_onlyTheTouchedChunkIsGenerated() {
+        storage.getTile(12, 3);
+        storage.getTile(19, 9);
+
+        Assert.assertTrue(storage.getChunkCount() == 1);
+        Assert.assertTrue(generatedChunks == 1);
+    }
+
+    @Test
+    public void getTile_generatedTilesAreAtTheChunkOrigin() {
+        Assert.assertTrue(storage.getTile(10, 20) == Map.TILE_TYPE.WATER);
+        Assert.assertTrue(storage.getTile(11, 20) == Map.TILE_TYPE.GRASS);
+        Assert.assertTrue(storage.getTile(20, 20) == Map.TILE_TYPE.WATER);
+    }
+
+    @Test
+    public void setTile_getterValueMatchesSetterValue() {
+        storage.setTile(24, 24, Map.TILE_TYPE.TREASURE);
+
+        Assert.assertTrue(storage.getTile(24, 24) == Map.TILE_TYPE.TREASURE);
+        Assert.assertTrue(storage.getChunkCount() == 1);
+    }
+
+    @Test
+    public void getTile_edgeChunksAreSmaller() {
+        final int[] widths = new int[1];
+
+        storage = new ChunkedTileStorage(size, chunkSize, new ChunkedTileStorage.ChunkGenerator() {
+            @Override
+            public void generate(final PackedTileStorage chunk, final int originX, final int originY) {
+                widths[0] = chunk.getWidth();
+            }
+        });
+        storage.getTile(24, 0);
+        Assert.assertTrue(widths[0] == size - 2 * chunkSize);
+    }
+}
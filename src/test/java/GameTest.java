@@ -1,16 +1,25 @@
 import exceptions.GameWasNotInitialized;
+import exceptions.NotEnoughGrassTiles;
 import exceptions.PositionIsOutOfRange;
 import exceptions.SizeOfMapWasNotSet;
+import org.apache.commons.io.FileUtils;
 import org.hamcrest.CoreMatchers;
-import org.junit.After;
 import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Field;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static junit.framework.TestCase.fail;
 
@@ -51,14 +60,6 @@ public class GameTest {
     // For clarity when passing the argument to the startGame() method
     private final boolean FAIL_IF_TREASURE = true, FAIL_IF_NO_TREASURE = false;
 
-    @After
-    public void tearDown() throws NoSuchFieldException, IllegalAccessException {
-        // Clear Map instance
-        Field instance = Map.class.getDeclaredField("instance");
-        instance.setAccessible(true);
-        instance.set(null, null);
-    }
-
     @Test(expected = GameWasNotInitialized.class)
     public void startGame_startBeforeSetupCausesException() throws GameWasNotInitialized {
 
@@ -242,6 +243,120 @@ public class GameTest {
         assertP1andP2Pos(cstStartPos[0], cstStartPos[1]);           // assert that players returned to start
     }
 
+    @Test
+    public void setup_batchedTeams_firstSnapshotRevealsEveryStartPosition() throws Exception {
+        // Teams = 2, Players = 4, Type = 0, Map size = 20
+        game = new Game(new ByteArrayInputStream((YES + "2\n4\n" + SAFE + "20\n").getBytes()));
+        game.setTeamSyncMode(Team.SYNC_MODE.BATCHED);
+        game.setup();
+        players = game.getPlayers();
+
+        final TurnSnapshot snapshot = new TurnSnapshot(game.getMap(), players);
+        for (int i = 0; i < players.length; i++) {
+            Assert.assertTrue(snapshot.isRevealed(i, snapshot.getX(i), snapshot.getY(i)));
+            for (int j = 0; j < players.length; j++) {
+                // The start positions were shared with the team, not only buffered
+                final boolean teammates = players[i].getTeam() == players[j].getTeam();
+                Assert.assertTrue(!teammates || snapshot.isRevealed(i, snapshot.getX(j), snapshot.getY(j)));
+            }
+            Assert.assertTrue(players[i].getBufferedPositions() == null || players[i].getBufferedPositions().isEmpty());
+        }
+    }
+
+    @Test
+    public void startGame_manyGamesRunConcurrently() throws Exception {
+        final int GAMES = 40;
+        final ExecutorService executor = Executors.newFixedThreadPool(GAMES);
+        final List<Future<Void>> results = new ArrayList<Future<Void>>();
+        final List<File> directories = new ArrayList<File>();
+
+        // Moves which keep the players walking around until the input runs out
+        final StringBuilder moves = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            moves.append(RT).append(DN).append(LT).append(UP);
+        }
+
+        try {
+            for (int i = 0; i < GAMES; i++) {
+                // Every game has its own map size, so that a map shared by games is noticed
+                final int mapSize = 5 + i;
+                final File directory = File.createTempFile("players-maps", "");
+                Assume.assumeTrue(directory.delete() && directory.mkdir());
+                directories.add(directory);
+
+                final Game concurrentGame = new Game(new ByteArrayInputStream(
+                        (NO + "2\n" + (i % 2 == 0 ? SAFE : HAZARD) + mapSize + "\n" + moves).getBytes()), directory);
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        concurrentGame.setup();
+                        final Map gameMap = concurrentGame.getMap();
+                        final Player gamePlayers[] = concurrentGame.getPlayers();
+                        try {
+                            concurrentGame.startGame();
+                        } catch (NoSuchElementException e) {
+                            // Input ran out before any player reached the treasure
+                        }
+                        Assert.assertTrue(gameMap.getSize() == mapSize);
+                        for (final Player p : gamePlayers) {
+                            Assert.assertTrue(p.getMap() == gameMap);
+                            Assert.assertTrue(p.getPosition().getX() < mapSize && p.getPosition().getY() < mapSize);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (final Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            for (final File directory : directories) {
+                FileUtils.deleteDirectory(directory);
+            }
+        }
+    }
+
+    @Test
+    public void startGame_incrementalOutputAppendsOnlyTheChangedCells() throws Exception {
+        final File directory = File.createTempFile("players-maps", "");
+        Assume.assumeTrue(directory.delete() && directory.mkdir());
+        final StringBuilder moves = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            moves.append(RT).append(LT);
+        }
+
+        try {
+            final Game incrementalGame = new Game(new ByteArrayInputStream(
+                    (NO + "2\n" + SAFE + "50\n" + moves).getBytes()), directory);
+            incrementalGame.setIncrementalOutput(true);
+            // Written by the game itself, so that no turn is merged into a later one
+            incrementalGame.setAsyncOutput(false);
+            incrementalGame.setup();
+            try {
+                incrementalGame.startGame();
+            } catch (NoSuchElementException e) {
+                // Input ran out before any player reached the treasure
+            }
+
+            final File[] files = directory.listFiles();
+            Assert.assertTrue(files != null && files.length == 2);
+            for (final File file : files) {
+                final String html = FileUtils.readFileToString(file);
+                final String deltas = html.substring(html.lastIndexOf("</html>"));
+
+                // The table is only written once, every later turn is a short script
+                Assert.assertTrue(html.split("<tr>").length - 1 == 50);
+                Assert.assertTrue(deltas.split("<script>applyDelta").length > 1);
+                for (final String delta : deltas.split("\n")) {
+                    Assert.assertTrue(delta.length() < 200);
+                }
+            }
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
     @Test
     public void enum_Testing() {
         Assert.assertTrue(Game.MOVE_DIRECTION.valueOf("RIGHT") == Game.MOVE_DIRECTION.RIGHT);
@@ -250,6 +365,44 @@ public class GameTest {
         Assert.assertTrue(Game.MOVE_DIRECTION.valueOf("DOWN") == Game.MOVE_DIRECTION.DOWN);
     }
 
+    /**
+     * Moving a player back and forth on a map does not allocate, since the positions are
+     * cached and the visited tiles are kept as bits.
+     */
+    @Test
+    public void verifyDirectionAndMove_movingDoesNotAllocate() throws PositionIsOutOfRange {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        Assume.assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        // Players = 2, Type = 0, Map size = 20
+        setInputStreamAndTryGameSetup(NO + "2\n" + SAFE + "20\n");
+        final Player player = players[0];
+        final long thread = Thread.currentThread().getId();
+        int tiles = 0;
+        player.setPosition(new Position(10, 10));
+
+        // First round warms up the positions of the cache and the compiler
+        long allocated = 0;
+        for (int round = 0; round < 2; round++) {
+            final long start = allocations.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 100000; i++) {
+                final Game.MOVE_DIRECTION dir = i % 4 == 0 ? Game.MOVE_DIRECTION.UP : i % 4 == 1
+                        ? Game.MOVE_DIRECTION.LEFT : i % 4 == 2 ? Game.MOVE_DIRECTION.DOWN : Game.MOVE_DIRECTION.RIGHT;
+                Assert.assertTrue(game.verifyDirectionAndMove(player, dir));
+                final Position pos = player.getPosition();
+                if (player.wasVisited(pos.getX(), pos.getY()) && map.getTileType(pos.getX(), pos.getY()) != null) {
+                    tiles++;
+                }
+            }
+            allocated = allocations.getThreadAllocatedBytes(thread) - start;
+        }
+        Assert.assertTrue(tiles == 200000);
+        // A single allocation per move would be well over a megabyte
+        Assert.assertTrue(allocated + " bytes were allocated.", allocated < 4096);
+    }
+
     /**
      * Helper Method #1.
      * <p>
@@ -260,8 +413,8 @@ public class GameTest {
     private void twoMovesInCorner(final Position corner)
             throws GameWasNotInitialized, PositionIsOutOfRange, SizeOfMapWasNotSet {
 
-        Assume.assumeTrue(corner.getX() == 0 || corner.getX() == Map.getSize() - 1);
-        Assume.assumeTrue(corner.getY() == 0 || corner.getY() == Map.getSize() - 1);
+        Assume.assumeTrue(corner.getX() == 0 || corner.getX() == map.getSize() - 1);
+        Assume.assumeTrue(corner.getY() == 0 || corner.getY() == map.getSize() - 1);
 
         // Loop until corner is grass
         do {
@@ -284,8 +437,8 @@ public class GameTest {
         // Loop and regenerate map if a tile of the specified type was not found
         do {
             // Find tile (skip first column since grass on left is needed)
-            for (int x = 1; x < Map.getSize(); x++) {
-                for (int y = 0; y < Map.getSize(); y++) {
+            for (int x = 1; x < map.getSize(); x++) {
+                for (int y = 0; y < map.getSize(); y++) {
                     if (map.getTileType(x, y) == tileToFind) {
 
                         // Check that there is grass to the left
@@ -310,8 +463,8 @@ public class GameTest {
         // Loop and regenerate map if a grass tile satisfying the conditions was not found
         do {
             // Find grass (skip first column and row since grass on left and up is needed)
-            for (int x = 1; x < Map.getSize(); x++) {
-                for (int y = 1; y < Map.getSize(); y++) {
+            for (int x = 1; x < map.getSize(); x++) {
+                for (int y = 1; y < map.getSize(); y++) {
                     if (map.getTileType(x, y) == Map.TILE_TYPE.GRASS) {
 
                         // Check that there is grass to the left and up
@@ -400,6 +553,8 @@ public class GameTest {
             fail("Size of map was not set.");
         } catch (PositionIsOutOfRange e3) {
             fail("A position was out of range.");
+        } catch (NotEnoughGrassTiles e5) {
+            fail("Not enough Grass tiles for the players.");
         } catch (NoSuchElementException e4) {
             fail("Not enough valid input was present.");
         }
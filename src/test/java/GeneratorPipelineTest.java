@@ -0,0 +1,153 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests used to test the implementation of GeneratorPipeline and its stages.
+ */
+public class GeneratorPipelineTest {
+
+    private final int size = 40;
+
+    @Test
+    public void generate_rowsAreStreamedInOrderThroughEveryStage() {
+        final List<String> calls = new ArrayList<String>();
+        final GeneratorPipeline pipeline = new GeneratorPipeline()
+                .add(new RecordingStage("a", calls))
+                .add(new RecordingStage("b", calls));
+
+        pipeline.generate(new PackedTileStorage(2, 2), 2, new Random(1));
+        Assert.assertEquals("[start a, start b, a 0, b 0, a 1, b 1, finish a, finish b]", calls.toString());
+    }
+
+    @Test
+    public void uniformWaterStage_givesTheExactAmountOfWater() {
+        for (final int percentage : new int[]{0, 10, 33, 100}) {
+            final PackedTileStorage storage = generate(new GeneratorPipeline().add(new UniformWaterStage(percentage)), 1);
+            Assert.assertTrue(countTiles(storage, Map.TILE_TYPE.WATER) == (size * size * percentage + 99) / 100);
+        }
+    }
+
+    @Test
+    public void treasureStage_placesOneTreasureOnGrass() {
+        final PackedTileStorage storage = generate(new GeneratorPipeline()
+                .add(new UniformWaterStage(50))
+                .add(new TreasureStage()), 2);
+
+        Assert.assertTrue(countTiles(storage, Map.TILE_TYPE.TREASURE) == 1);
+        Assert.assertTrue(countTiles(storage, Map.TILE_TYPE.WATER) == size * size / 2);
+    }
+
+    @Test
+    public void treasureStage_mapWithoutGrassStillHasATreasure() {
+        final PackedTileStorage storage = generate(new GeneratorPipeline()
+                .add(new UniformWaterStage(100))
+                .add(new TreasureStage()), 3);
+
+        Assert.assertTrue(countTiles(storage, Map.TILE_TYPE.TREASURE) == 1);
+    }
+
+    @Test
+    public void noiseLakesStage_givesRoughlyThePercentageOfWater() {
+        final PackedTileStorage storage = generate(new GeneratorPipeline().add(new NoiseLakesStage(20, 8)), 4);
+        final int water = countTiles(storage, Map.TILE_TYPE.WATER);
+
+        Assert.assertTrue(water > size * size / 10 && water < size * size * 3 / 10);
+        Assert.assertTrue(countTiles(generate(new GeneratorPipeline().add(new NoiseLakesStage(0, 8)), 4),
+                Map.TILE_TYPE.WATER) == 0);
+    }
+
+    @Test
+    public void riverStage_everyRowHasAtMostOneWaterTilePerRiver() {
+        final PackedTileStorage storage = generate(new GeneratorPipeline().add(new RiverStage(1)), 5);
+        int wetRows = 0;
+
+        for (int y = 0; y < size; y++) {
+            int water = 0;
+            for (int x = 0; x < size; x++) {
+                water += storage.getTile(x, y) == Map.TILE_TYPE.WATER ? 1 : 0;
+            }
+            Assert.assertTrue(water <= 1);
+            wetRows += water;
+        }
+        Assert.assertTrue(wetRows > size / 2);
+    }
+
+    @Test
+    public void islandStage_edgesAreWaterAndCentreIsGrass() {
+        final PackedTileStorage storage = generate(new GeneratorPipeline().add(new IslandStage(40)), 6);
+
+        Assert.assertTrue(storage.getTile(0, 0) == Map.TILE_TYPE.WATER);
+        Assert.assertTrue(storage.getTile(size - 1, size / 2) == Map.TILE_TYPE.WATER);
+        Assert.assertTrue(storage.getTile(size / 2, size / 2) == Map.TILE_TYPE.GRASS);
+    }
+
+    @Test
+    public void generate_sameSeedGivesTheSameTiles() {
+        final PackedTileStorage first = generate(islandPipeline(), 7), second = generate(islandPipeline(), 7);
+
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                Assert.assertTrue(first.getTile(x, y) == second.getTile(x, y));
+            }
+        }
+    }
+
+    private GeneratorPipeline islandPipeline() {
+        return new GeneratorPipeline()
+                .add(new IslandStage(40))
+                .add(new NoiseLakesStage(5, 6))
+                .add(new RiverStage(2))
+                .add(new TreasureStage());
+    }
+
+    private PackedTileStorage generate(final GeneratorPipeline pipeline, final long seed) {
+        final PackedTileStorage storage = new PackedTileStorage(size, size);
+        pipeline.generate(storage, size, new Random(seed));
+        return storage;
+    }
+
+    private int countTiles(final TileStorage storage, final Map.TILE_TYPE type) {
+        int count = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (storage.getTile(x, y) == type) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Stage recording the calls it receives.
+     */
+    private static class RecordingStage implements GenerationStage {
+
+        private final String name;
+        private final List<String> calls;
+
+        RecordingStage(final String name, final List<String> calls) {
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        public void start(final int size, final Random rand) {
+            calls.add("start " + name);
+        }
+
+        @Override
+        public void transformRow(final int y, final Map.TILE_TYPE[] row) {
+            calls.add(name + " " + y);
+        }
+
+        @Override
+        public void finish(final TileStorage tiles) {
+            calls.add("finish " + name);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import exceptions.NotEnoughGrassTiles;
+import exceptions.PositionIsOutOfRange;
+import exceptions.SizeOfMapWasNotSet;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Tests used to test the implementation of HTMLFileRenderer.
+ */
+public class HTMLFileRendererTest {
+
+    private final File template = new File("src/main/resources/html-template/SoftEngineer.html");
+    private File sequential, parallel;
+    private TurnSnapshot snapshot;
+
+    @Before
+    public void setUp() throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        final Map map = new SafeMap();
+        final Player players[] = new Player[8];
+
+        map.setMapSize(20, 20, players.length);
+        map.generate();
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player(i + 1);
+            map.setInitialPlayerPosition(players[i]);
+        }
+        snapshot = new TurnSnapshot(map, players);
+        sequential = createDirectory();
+        parallel = createDirectory();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(sequential);
+        FileUtils.deleteDirectory(parallel);
+    }
+
+    @Test
+    public void render_parallelFilesMatchSequentialFiles() throws IOException {
+        final HTMLFileRenderer renderer = new HTMLFileRenderer(parallel, new HTMLTemplate(template), 4);
+
+        Assert.assertTrue(new HTMLFileRenderer(sequential, new HTMLTemplate(template), 1).render(snapshot, true) == 0);
+        Assert.assertTrue(renderer.render(snapshot, true) == 0);
+        renderer.shutdown();
+
+        for (int i = 0; i < snapshot.getPlayerCount(); i++) {
+            final File file = renderer.getFile(snapshot, i);
+            Assert.assertTrue(file.getParentFile().equals(parallel));
+            Assert.assertTrue(FileUtils.readFileToString(file).equals(
+                    FileUtils.readFileToString(new File(sequential, file.getName()))));
+        }
+    }
+
+    @Test
+    public void render_fileThatCannotBeWrittenDoesNotStopTheOthers() throws IOException {
+        final HTMLFileRenderer renderer = new HTMLFileRenderer(parallel, new HTMLTemplate(template), 4);
+
+        // A directory in place of the file of the third player
+        Assume.assumeTrue(renderer.getFile(snapshot, 2).mkdir());
+        Assert.assertTrue(renderer.render(snapshot, true) == 1);
+        renderer.shutdown();
+
+        for (int i = 0; i < snapshot.getPlayerCount(); i++) {
+            Assert.assertTrue(i == 2 || renderer.getFile(snapshot, i).isFile());
+        }
+    }
+
+    @Test
+    public void render_fileThatCouldNotBeWrittenIsWrittenInFullNextTime() throws IOException {
+        final HTMLFileRenderer renderer = new HTMLFileRenderer(parallel, new HTMLTemplate(template), 4);
+
+        Assume.assumeTrue(renderer.getFile(snapshot, 2).mkdir());
+        Assert.assertTrue(renderer.render(snapshot, true) == 1);
+        Assume.assumeTrue(renderer.getFile(snapshot, 2).delete());
+
+        // Only the changes are asked for, but the third player has no page to append them to
+        Assert.assertTrue(renderer.render(snapshot, false) == 0);
+        renderer.shutdown();
+
+        for (int i = 0; i < snapshot.getPlayerCount(); i++) {
+            final String html = FileUtils.readFileToString(renderer.getFile(snapshot, i));
+            Assert.assertTrue(html.split("<caption").length == 2);
+            Assert.assertTrue(html.contains("<script>applyDelta") == (i != 2));
+        }
+    }
+
+    private File createDirectory() throws IOException {
+        final File directory = File.createTempFile("players-maps", "");
+        Assume.assumeTrue(directory.delete() && directory.mkdir());
+        return directory;
+    }
+}
@@ -1,4 +1,4 @@
-import exceptions.MapWasAlreadyInitialized;
+import exceptions.NotEnoughGrassTiles;
 import exceptions.PositionIsOutOfRange;
 import exceptions.SizeOfMapWasNotSet;
 import org.apache.commons.io.FileUtils;
@@ -8,9 +8,10 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Field;
+import java.io.StringWriter;
 
 import static org.junit.Assert.fail;
 
@@ -28,7 +29,7 @@ public class HTMLGeneratorTest {
     private final int size = 10, playerNumber = 3;
 
     @Before
-    public void setUp() throws IOException, SizeOfMapWasNotSet, MapWasAlreadyInitialized {
+    public void setUp() throws IOException, SizeOfMapWasNotSet {
         int numberOfPlayers = 3;
         // Can be anything or can use mocking
         map = new SafeMap();
@@ -41,24 +42,22 @@ public class HTMLGeneratorTest {
     }
 
     @After
-    public void tearDown() throws IOException, IllegalAccessException, NoSuchFieldException {
+    public void tearDown() throws IOException {
         if (!file.delete()) {
             throw new IOException("Failed to delete test file.");
         }
-        // Clear Map instance
-        Field instance = Map.class.getDeclaredField("instance");
-        instance.setAccessible(true);
-        instance.set(null, null);
     }
 
     @Test(expected = IOException.class)
-    public void HTMLGenerator_fileTemplateNotFound_correctPosition() throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet {
+    public void HTMLGenerator_fileTemplateNotFound_correctPosition()
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
         map.setInitialPlayerPosition(player);
         htmlGeneratorInstance = new HTMLGenerator(new File("ThisFileDoesNotExist"), map, player);
     }
 
     @Test
-    public void HTMLGenerator_fileTemplateFoundAndCreated() throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet {
+    public void HTMLGenerator_fileTemplateFoundAndCreated()
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
         map.setInitialPlayerPosition(player);
         htmlGeneratorInstance = new HTMLGenerator(file, map, player);
         // Check if file exists.
@@ -67,7 +66,7 @@ public class HTMLGeneratorTest {
 
     @Test
     public void HTMLGenerator_checkThatThereIsTheCaptionWithThePlayerName()
-            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet {
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
         map.setInitialPlayerPosition(player);
         htmlGeneratorInstance = new HTMLGenerator(file, map, player);
         // The file generated will be available after constructor
@@ -80,7 +79,7 @@ public class HTMLGeneratorTest {
 
     @Test
     public void HTMLGenerator_checkIfPlayerIsInitiallyOnGrassTileAndOtherTilesAreUndiscovered()
-            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet {
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
         map.setInitialPlayerPosition(player);
         htmlGeneratorInstance = new HTMLGenerator(file, map, player);
         // The file generated will be available after constructor
@@ -91,11 +90,12 @@ public class HTMLGeneratorTest {
         Assert.assertTrue(StringUtils.countMatches(html,
                 htmlGeneratorInstance.GRASS_CELL_WITH_PLAYER) == 1);
         Assert.assertTrue(StringUtils.countMatches(html,
-                htmlGeneratorInstance.IDLE_CELL) == (Map.getSize() * Map.getSize()) - 1);
+                htmlGeneratorInstance.IDLE_CELL) == (map.getSize() * map.getSize()) - 1);
     }
 
     @Test
-    public void HTMLGenerator_checkPlayerMovementRemovesUnDiscoveredCell() throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet {
+    public void HTMLGenerator_checkPlayerMovementRemovesUnDiscoveredCell()
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
         int newX = 0, newY = 1;
         // Set 2 position of the player.
         map.setInitialPlayerPosition(player);
@@ -110,11 +110,12 @@ public class HTMLGeneratorTest {
 
         // Two Unknown tiles are removed from being unknown regardless of tiles type.
         Assert.assertTrue(StringUtils.countMatches(html,
-                htmlGeneratorInstance.IDLE_CELL) == (Map.getSize() * Map.getSize()) - 2);
+                htmlGeneratorInstance.IDLE_CELL) == (map.getSize() * map.getSize()) - 2);
     }
 
     @Test
-    public void HTMLGenerator_checkPlayerMovementHas1GreenTile() throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet {
+    public void HTMLGenerator_checkPlayerMovementHas1GreenTile()
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
         int newX = 0, newY = 1;
         // Set 2 position of the player.
         map.setInitialPlayerPosition(player);
@@ -134,7 +135,7 @@ public class HTMLGeneratorTest {
 
     @Test
     public void HTMLGenerator_checkPlayerMovementMovesToNextTile_nextTileIsGreen()
-            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet {
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
         // Set 2 position of the player.
         map.setInitialPlayerPosition(player);
         // Find position of Type.
@@ -154,7 +155,7 @@ public class HTMLGeneratorTest {
 
     @Test
     public void HTMLGenerator_checkPlayerMovementMovesToNextTile_nextTileIsTreasure()
-            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet {
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
         // Set 2 position of the player.
         map.setInitialPlayerPosition(player);
         // Find position of Type.
@@ -174,7 +175,7 @@ public class HTMLGeneratorTest {
 
     @Test
     public void HTMLGenerator_checkPlayerMovementMovesToNextTile_nextTileIsWaterTile()
-            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet {
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
         // Set 2 position of the player.
         map.setInitialPlayerPosition(player);
         // Find position of Type.
@@ -194,7 +195,7 @@ public class HTMLGeneratorTest {
 
     @Test
     public void HTMLGenerator_checkPlayerMovementMovesToNextTile_thereIsAWaterTileAfterMovingAwayFromTheWaterTile()
-            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet {
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
         // Set 2 position of the player.
         map.setInitialPlayerPosition(player);
         // The player will go to the starting point to guarantee
@@ -213,7 +214,7 @@ public class HTMLGeneratorTest {
 
     @Test
     public void HTMLGenerator_checkPlayerMovementMovesToNextTile_thereIsAWaterTreasureTileAfterMovingAwayFromTheTreasureTile()
-            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet {
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
         // Set 2 position of the player.
         map.setInitialPlayerPosition(player);
         // The player will go to the starting point to guarantee
@@ -244,4 +245,58 @@ public class HTMLGeneratorTest {
         }
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void HTMLGenerator_streamedPageMatchesTheFilePage()
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        map.setInitialPlayerPosition(player);
+        final String template = FileUtils.readFileToString(file);
+        final StringWriter out = new StringWriter();
+
+        htmlGeneratorInstance = new HTMLGenerator(out, template, new TurnSnapshot(map, new Player[]{player}), 0);
+        new HTMLGenerator(file, map, player);
+
+        Assert.assertTrue(out.toString().equals(FileUtils.readFileToString(file)));
+        Assert.assertFalse(out.toString().contains("$Table"));
+        Assert.assertTrue(out.toString().startsWith(template.substring(0, template.indexOf("$Table"))));
+    }
+
+    @Test
+    public void HTMLGenerator_pageFromCachedTemplateMatchesTheFilePage()
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        map.setInitialPlayerPosition(player);
+        final HTMLTemplate template = new HTMLTemplate(file);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        htmlGeneratorInstance = new HTMLGenerator(out, template, new TurnSnapshot(map, new Player[]{player}), 0);
+        new HTMLGenerator(file, map, player);
+
+        Assert.assertTrue(new String(out.toByteArray(), template.getCharset()).equals(FileUtils.readFileToString(file)));
+    }
+
+    @Test
+    public void writeDelta_onlyTheChangedCellsAreWritten() throws IOException {
+        final StringWriter out = new StringWriter();
+        player.setMap(map);
+        player.setPosition(new Position(0, 0));
+        player.endTurn();
+
+        // Nothing changed yet
+        HTMLGenerator.writeDelta(out, new TurnSnapshot(map, new Player[]{player}), 0);
+        Assert.assertTrue(out.toString().isEmpty());
+
+        player.setPosition(new Position(1, 0));
+        HTMLGenerator.writeDelta(out, new TurnSnapshot(map, new Player[]{player}), 0);
+        Assert.assertTrue(out.toString().startsWith("<script>applyDelta(["));
+        Assert.assertTrue(out.toString().endsWith(",[1,0,\"" + cellClass(1, 0) + "\",1]]);</script>\n"));
+        Assert.assertTrue(out.toString().contains("[0,0,\"" + cellClass(0, 0) + "\",0]"));
+    }
+
+    private String cellClass(final int x, final int y) {
+        try {
+            return map.getTileType(x, y).name().toLowerCase() + "Cell";
+        } catch (PositionIsOutOfRange e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
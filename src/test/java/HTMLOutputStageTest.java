@@ -0,0 +1,160 @@
+import exceptions.PositionIsOutOfRange;
+import exceptions.SizeOfMapWasNotSet;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests used to test the implementation of HTMLOutputStage.
+ */
+public class HTMLOutputStageTest {
+
+    private final File template = new File("src/main/resources/html-template/SoftEngineer.html");
+    private File directory;
+    private Map map;
+    private Player player;
+    private HTMLFileRenderer renderer;
+    private HTMLOutputStage stage;
+
+    @Before
+    public void setUp() throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet {
+        map = new SafeMap();
+        map.setMapSize(30, 30, 2);
+        map.generate();
+        player = new Player(1);
+        player.setMap(map);
+        player.setPosition(new Position(0, 0));
+
+        directory = File.createTempFile("players-maps", "");
+        Assume.assumeTrue(directory.delete() && directory.mkdir());
+        renderer = new HTMLFileRenderer(directory, new HTMLTemplate(template), 1);
+        stage = new HTMLOutputStage(renderer);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        stage.shutdown();
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void flush_lastSnapshotIsWrittenWhateverWasMerged() throws IOException {
+        TurnSnapshot snapshot = null;
+
+        // Walk along the top row, handing over a frame of the changes of every turn
+        for (int x = 0; x < map.getSize(); x++) {
+            player.setPosition(new Position(x, 0));
+            snapshot = new TurnSnapshot(map, new Player[]{player});
+            stage.submit(snapshot, x == 0);
+            player.endTurn();
+        }
+        stage.flush();
+
+        Assert.assertTrue(stage.getWrittenCount() + stage.getCoalescedCount() == map.getSize());
+        final String html = FileUtils.readFileToString(renderer.getFile(snapshot, 0));
+
+        // One page, followed by the frames of changes that were not merged into a full one
+        Assert.assertTrue(html.split("<caption").length == 2);
+        if (stage.getCoalescedCount() == 0) {
+            Assert.assertTrue(html.split("<script>applyDelta").length == map.getSize());
+        }
+    }
+
+    @Test
+    public void submit_mergedFramesAreWrittenInFull() throws InterruptedException {
+        final RecordingRenderer recorder = new RecordingRenderer(directory, null);
+        final HTMLOutputStage blocked = new HTMLOutputStage(recorder);
+        final TurnSnapshot first = new TurnSnapshot(map, new Player[]{player});
+        final TurnSnapshot second = new TurnSnapshot(map, new Player[]{player});
+        final TurnSnapshot third = new TurnSnapshot(map, new Player[]{player});
+
+        try {
+            // The first frame holds up the writer, so the second one is replaced by the third
+            blocked.submit(first, true);
+            Assert.assertTrue(recorder.started.await(10, TimeUnit.SECONDS));
+            blocked.submit(second, false);
+            blocked.submit(third, false);
+            recorder.release.countDown();
+            blocked.flush();
+
+            Assert.assertTrue(blocked.getCoalescedCount() == 1 && blocked.getWrittenCount() == 2);
+            Assert.assertTrue(recorder.snapshots.get(0) == first && recorder.fulls.get(0));
+            Assert.assertTrue(recorder.snapshots.get(1) == third && recorder.fulls.get(1));
+        } finally {
+            recorder.release.countDown();
+            blocked.shutdown();
+        }
+    }
+
+    @Test
+    public void flush_errorWhileWritingDoesNotStopTheStage() {
+        final RecordingRenderer recorder = new RecordingRenderer(directory, new OutOfMemoryError());
+        final HTMLOutputStage failing = new HTMLOutputStage(recorder);
+        final TurnSnapshot first = new TurnSnapshot(map, new Player[]{player});
+        final TurnSnapshot second = new TurnSnapshot(map, new Player[]{player});
+
+        recorder.release.countDown();
+        try {
+            failing.submit(first, true);
+            failing.flush();
+            failing.submit(second, false);
+            failing.flush();
+
+            Assert.assertTrue(failing.getWrittenCount() == 2);
+            Assert.assertTrue(recorder.snapshots.get(1) == second);
+        } finally {
+            failing.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void submit_afterShutdownCausesException() {
+        stage.shutdown();
+        stage.submit(new TurnSnapshot(map, new Player[]{player}), true);
+    }
+
+    /**
+     * Records the frames it is asked to write instead of writing them. The first frame waits
+     * for release, and throws the given error if there is one.
+     */
+    private static class RecordingRenderer extends HTMLFileRenderer {
+
+        private final CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+        private final List<TurnSnapshot> snapshots = new CopyOnWriteArrayList<TurnSnapshot>();
+        private final List<Boolean> fulls = new CopyOnWriteArrayList<Boolean>();
+        private final Error error;
+
+        RecordingRenderer(final File directory, final Error error) {
+            super(directory, null, 1);
+            this.error = error;
+        }
+
+        @Override
+        public int render(final TurnSnapshot snapshot, final boolean full) {
+            snapshots.add(snapshot);
+            fulls.add(full);
+            if (snapshots.size() == 1) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (error != null) {
+                    throw error;
+                }
+            }
+            return 0;
+        }
+    }
+}
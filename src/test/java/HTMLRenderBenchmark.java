@@ -0,0 +1,78 @@
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+
+/**
+ * Measures the wall time of writing the HTML files of one turn from its snapshot, for
+ * several player counts and map sizes, one file at a time and in parallel. It is not a test (surefire does not pick it up) and is run by hand:
+ * <p>
+ * java -cp target/classes:target/test-classes:commons-io.jar HTMLRenderBenchmark [threads]
+ * <p>
+ * Maps larger than 50 tiles are created in chunked mode.
+ */
+public class HTMLRenderBenchmark {
+
+    private static final int[] SIZES = {20, 50, 200};
+    private static final int[] PLAYERS = {2, 8, 32, 128};
+    private static final int TURNS = 10;
+
+    public static void main(String args[]) throws Exception {
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        final HTMLTemplate template = new HTMLTemplate(new File("src/main/resources/html-template/SoftEngineer.html"));
+        final File directory = File.createTempFile("players-maps", "");
+
+        if (!directory.delete() || !directory.mkdir()) {
+            throw new IllegalStateException("Could not create " + directory);
+        }
+        System.out.println("processors: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("size\tplayers\t1 thread ms/turn\t" + threads + " threads ms/turn");
+        try {
+            for (final int size : SIZES) {
+                for (final int count : PLAYERS) {
+                    final TurnSnapshot snapshot = createSnapshot(size, count);
+                    System.out.println(size + "\t" + count
+                            + "\t" + format(measure(new HTMLFileRenderer(directory, template, 1), snapshot))
+                            + "\t" + format(measure(new HTMLFileRenderer(directory, template, threads), snapshot)));
+                }
+            }
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    private static TurnSnapshot createSnapshot(final int size, final int count) throws Exception {
+        final Map map = new SafeMap();
+        final Player players[] = new Player[count];
+
+        if (size > Map.MAX_MAP_SIZE) {
+            map.setChunkedMode(size);
+        }
+        map.setMapSize(size, size, 2);
+        map.generate();
+        for (int i = 0; i < count; i++) {
+            players[i] = new Player(i + 1);
+            map.setInitialPlayerPosition(players[i]);
+        }
+        return new TurnSnapshot(map, players);
+    }
+
+    /**
+     * Returns the average ms per turn, after a warm up of the same number of turns.
+     */
+    private static double measure(final HTMLFileRenderer renderer, final TurnSnapshot snapshot) {
+        long start = 0;
+
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (int turn = 0; turn < TURNS; turn++) {
+                renderer.render(snapshot, true);
+            }
+        }
+        renderer.shutdown();
+        return (System.nanoTime() - start) / 1e6 / TURNS;
+    }
+
+    private static String format(final double value) {
+        return String.format("%.2f", value);
+    }
+}
@@ -0,0 +1,69 @@
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Tests used to test the implementation of HTMLTemplate.
+ */
+public class HTMLTemplateTest {
+
+    private final File file = new File("src/test/resources/html-test-template/CachedTemplate.html");
+    private HTMLTemplate template;
+
+    @Before
+    public void setUp() throws IOException {
+        FileUtils.writeStringToFile(file, "<table>$Table</table>");
+        template = new HTMLTemplate(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (!file.delete()) {
+            throw new IOException("Failed to delete test file.");
+        }
+    }
+
+    @Test
+    public void get_templateIsSplitAtTheTableTag() throws IOException {
+        final HTMLTemplate.Compiled compiled = template.get();
+
+        Assert.assertTrue(compiled.hasTable);
+        Assert.assertTrue(new String(compiled.prefix, template.getCharset()).equals("<table>"));
+        Assert.assertTrue(new String(compiled.suffix, template.getCharset()).equals("</table>"));
+    }
+
+    @Test
+    public void get_unchangedFileIsOnlyReadOnce() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            template.get();
+        }
+        Assert.assertTrue(template.getLoadCount() == 1);
+    }
+
+    @Test
+    public void get_changedFileIsReadAgain() throws IOException {
+        final long lastModified = file.lastModified();
+
+        FileUtils.writeStringToFile(file, "<div>$Table</div>");
+        // File systems with a coarse clock could keep the same modification time
+        Assert.assertTrue(file.setLastModified(lastModified + 2000));
+
+        Assert.assertTrue(new String(template.get().prefix, template.getCharset()).equals("<div>"));
+        Assert.assertTrue(template.getLoadCount() == 2);
+    }
+
+    @Test
+    public void get_templateWithoutTagIsKeptWhole() throws IOException {
+        FileUtils.writeStringToFile(file, "<p>No table</p>");
+        template = new HTMLTemplate(file);
+
+        Assert.assertFalse(template.get().hasTable);
+        Assert.assertTrue(new String(template.get().prefix, template.getCharset()).equals("<p>No table</p>"));
+        Assert.assertTrue(template.get().suffix.length == 0);
+    }
+}
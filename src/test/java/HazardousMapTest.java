@@ -1,13 +1,9 @@
-import exceptions.MapWasAlreadyInitialized;
 import exceptions.PositionIsOutOfRange;
 import exceptions.SizeOfMapWasNotSet;
-import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.lang.reflect.Field;
-
 import static org.junit.Assert.*;
 
 /**
@@ -18,22 +14,19 @@ public class HazardousMapTest {
     private Map mapInstance;
 
     @Before
-    public void setUp() throws MapWasAlreadyInitialized {
+    public void setUp() {
         // Can be anything or can use mocking
         mapInstance = new HazardousMap();
     }
 
-    @After
-    public void tearDown() throws NoSuchFieldException, IllegalAccessException {
-        // Clear Map instance
-        Field instance = Map.class.getDeclaredField("instance");
-        instance.setAccessible(true);
-        instance.set(null, null);
-    }
+    @Test
+    public void hazardousMap_anotherInstanceIsIndependent() {
+        int size = 10, numberOfPlayers = 3;
+        Map secondMap = new HazardousMap();
 
-    @Test(expected = MapWasAlreadyInitialized.class)
-    public void hazardousMap_initialiseAMapWithOutCreatorThatAlreadyExists() throws MapWasAlreadyInitialized {
-        new HazardousMap();
+        Assert.assertTrue(mapInstance.setMapSize(size, size, numberOfPlayers));
+        Assert.assertTrue(secondMap.setMapSize(size * 2, size * 2, numberOfPlayers));
+        Assert.assertTrue(mapInstance.getSize() == size);
     }
 
     @Test(expected = SizeOfMapWasNotSet.class)
@@ -47,8 +40,8 @@ public class HazardousMapTest {
         if (mapInstance.setMapSize(size, size, numberOfPlayers)) {
             mapInstance.generate();
 
-            for (int x = 0; x < Map.getSize(); x++) {
-                for (int y = 0; y < Map.getSize(); y++) {
+            for (int x = 0; x < mapInstance.getSize(); x++) {
+                for (int y = 0; y < mapInstance.getSize(); y++) {
                     if (mapInstance.getTileType(x, y) == Map.TILE_TYPE.TREASURE) {
                         treasureCount++;
                     }
@@ -58,7 +51,7 @@ public class HazardousMapTest {
 
             Assert.assertTrue("There is suppose to be only 1 treasure.", treasureCount == 1);
             Assert.assertTrue("There should be n x n Tiles", totalSize ==
-                    Map.getSize() * Map.getSize());
+                    mapInstance.getSize() * mapInstance.getSize());
         } else {
             fail("Map size was suppose to be set.");
         }
@@ -69,8 +62,8 @@ public class HazardousMapTest {
         int size = 10, numberOfPlayers = 3, waterTiles = 0, totalSize = 0, waterTilePercentage;
         if (mapInstance.setMapSize(size, size, numberOfPlayers)) {
             mapInstance.generate();
-            for (int x = 0; x < Map.getSize(); x++) {
-                for (int y = 0; y < Map.getSize(); y++) {
+            for (int x = 0; x < mapInstance.getSize(); x++) {
+                for (int y = 0; y < mapInstance.getSize(); y++) {
                     if (mapInstance.getTileType(x, y) == Map.TILE_TYPE.WATER) {
                         waterTiles++;
                     }
@@ -83,9 +76,37 @@ public class HazardousMapTest {
             Assert.assertTrue("There is suppose to be around 25% to 35% water tiles.",
                     waterTilePercentage >= 25 && waterTilePercentage <= 35);
             Assert.assertTrue("There should be n x n Tiles", totalSize ==
-                    Map.getSize() * Map.getSize());
+                    mapInstance.getSize() * mapInstance.getSize());
+        } else {
+            fail("Map size was suppose to be set.");
+        }
+    }
+
+    @Test
+    public void generate_chunkedModeHasBetween25to35PercentWaterTilesPerChunk() throws SizeOfMapWasNotSet, PositionIsOutOfRange {
+        // 300 is not a multiple of the chunk size so the edge chunks are smaller
+        int size = 300, numberOfPlayers = 3;
+        mapInstance.setChunkedMode(7);
+        if (mapInstance.setMapSize(size, size, numberOfPlayers)) {
+            mapInstance.generate();
+
+            for (int chunkX = 0; chunkX < size; chunkX += Map.CHUNK_SIZE) {
+                for (int chunkY = 0; chunkY < size; chunkY += Map.CHUNK_SIZE) {
+                    int waterTiles = 0, tiles = 0;
+                    for (int x = chunkX; x < Math.min(chunkX + Map.CHUNK_SIZE, size); x++) {
+                        for (int y = chunkY; y < Math.min(chunkY + Map.CHUNK_SIZE, size); y++) {
+                            if (mapInstance.getTileType(x, y) == Map.TILE_TYPE.WATER) {
+                                waterTiles++;
+                            }
+                            tiles++;
+                        }
+                    }
+                    Assert.assertTrue("Chunk (" + chunkX + ", " + chunkY + ") has " + waterTiles + " water tiles.",
+                            waterTiles >= (int) Math.ceil(tiles * 0.25) && waterTiles <= (int) Math.ceil(tiles * 0.35));
+                }
+            }
         } else {
             fail("Map size was suppose to be set.");
         }
     }
-}
\ No newline at end of file
+}
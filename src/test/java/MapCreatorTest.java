@@ -1,13 +1,12 @@
 import exceptions.GameWasNotInitialized;
+import exceptions.NotEnoughGrassTiles;
 import exceptions.PositionIsOutOfRange;
 import exceptions.SizeOfMapWasNotSet;
 import org.hamcrest.CoreMatchers;
-import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
-import java.lang.reflect.Field;
 import java.util.NoSuchElementException;
 
 import static junit.framework.TestCase.fail;
@@ -19,19 +18,11 @@ public class MapCreatorTest {
 
     private Game game;
 
-    @After
-    public void tearDown() throws NoSuchFieldException, IllegalAccessException {
-        // Clear Map instance
-        Field instance = Map.class.getDeclaredField("instance");
-        instance.setAccessible(true);
-        instance.set(null, null);
-    }
-
     @Test
     public void createMap_createSafeMap() throws SizeOfMapWasNotSet, GameWasNotInitialized {
         MapCreator mapCreator = new MapCreator();
-        // No collaborative mode, 2 players, safe mode, map size 5
-        setUpGameForMap("0\n2\n0\n5\n");
+        // No collaborative mode, 2 players, safe mode, map size 5, and map size 5 for the new map
+        setUpGameForMap("0\n2\n0\n5\n5\n");
         Map map = mapCreator.createMap(MapCreator.MAP_TYPE.SAFE_MAP, game);
 
         Assert.assertThat(map, CoreMatchers.instanceOf(SafeMap.class));
@@ -40,34 +31,52 @@ public class MapCreatorTest {
     @Test
     public void createMap_createHazardousMap() throws SizeOfMapWasNotSet, GameWasNotInitialized {
         MapCreator mapCreator = new MapCreator();
-        // No collaborative mode, 2 players, hazardous mode, map size 5
-        setUpGameForMap("0\n2\n1\n5\n");
+        // No collaborative mode, 2 players, hazardous mode, map size 5, and map size 5 for the new map
+        setUpGameForMap("0\n2\n1\n5\n5\n");
         Map map = mapCreator.createMap(MapCreator.MAP_TYPE.HAZARDOUS_MAP, game);
 
         Assert.assertThat(map, CoreMatchers.instanceOf(HazardousMap.class));
     }
 
     @Test
-    public void createMap_mapWasAlreadyInitialised() throws SizeOfMapWasNotSet, GameWasNotInitialized {
+    public void createMap_createPipelineMaps() throws SizeOfMapWasNotSet, GameWasNotInitialized {
+        MapCreator mapCreator = new MapCreator();
+        // No collaborative mode, 2 players, lakes mode, map size 5, and map sizes 20 for the new maps
+        setUpGameForMap("0\n2\n2\n5\n20\n20\n20\n");
+
+        for (final MapCreator.MAP_TYPE type : new MapCreator.MAP_TYPE[]{MapCreator.MAP_TYPE.LAKES_MAP,
+                MapCreator.MAP_TYPE.RIVERS_MAP, MapCreator.MAP_TYPE.ISLAND_MAP}) {
+            Map map = mapCreator.createMap(type, game);
+
+            Assert.assertThat(map, CoreMatchers.instanceOf(PipelineMap.class));
+            Assert.assertTrue(map.getSize() == 20 && map.isSolvable());
+        }
+    }
+
+    @Test
+    public void createMap_mapWasAlreadyCreated() throws SizeOfMapWasNotSet, GameWasNotInitialized {
         MapCreator mapCreator = new MapCreator();
-        // No collaborative mode, 2 players, hazardous mode, map size 5
-        setUpGameForMap("0\n2\n1\n5\n");
+        // No collaborative mode, 2 players, hazardous mode, map size 5, and map sizes 5 and 7 for the new maps
+        setUpGameForMap("0\n2\n1\n5\n5\n7\n");
         Map map = mapCreator.createMap(MapCreator.MAP_TYPE.HAZARDOUS_MAP, game);
         Map secondMapCreator = mapCreator.createMap(MapCreator.MAP_TYPE.HAZARDOUS_MAP, game);
-        // If a map is already initialised, the program will return that map.
-        Assert.assertTrue(secondMapCreator == map);
+        // Every map is a new map, independent of the maps created before.
+        Assert.assertTrue(secondMapCreator != map);
+        Assert.assertTrue(map.getSize() == 5 && secondMapCreator.getSize() == 7);
+        Assert.assertTrue(game.getMap() != map && game.getMap() != secondMapCreator);
     }
 
     @Test
-    public void createMap_mapOfDifferentTypeWasAlreadyInitialised() throws SizeOfMapWasNotSet, GameWasNotInitialized {
+    public void createMap_mapOfDifferentTypeWasAlreadyCreated() throws SizeOfMapWasNotSet, GameWasNotInitialized {
         MapCreator mapCreator = new MapCreator();
-        // No collaborative mode, 2 players, hazardous mode, map size 5
-        setUpGameForMap("0\n2\n1\n5\n");
+        // No collaborative mode, 2 players, hazardous mode, map size 5, and map sizes 5 and 7 for the new maps
+        setUpGameForMap("0\n2\n1\n5\n5\n7\n");
         Map map = mapCreator.createMap(MapCreator.MAP_TYPE.HAZARDOUS_MAP, game);
         Map secondMapCreator = mapCreator.createMap(MapCreator.MAP_TYPE.SAFE_MAP, game);
-        // If a map is already initialised, the program will return that map regardless
-        // if it is another map
-        Assert.assertTrue(secondMapCreator == map);
+        // A map of another type is a new map as well
+        Assert.assertThat(map, CoreMatchers.instanceOf(HazardousMap.class));
+        Assert.assertThat(secondMapCreator, CoreMatchers.instanceOf(SafeMap.class));
+        Assert.assertTrue(map.getSize() == 5 && secondMapCreator.getSize() == 7);
     }
 
     @Test
@@ -91,6 +100,8 @@ public class MapCreatorTest {
             fail("Size of map was not set.");
         } catch (PositionIsOutOfRange e3) {
             fail("A position was out of range.");
+        } catch (NotEnoughGrassTiles e5) {
+            fail("Not enough Grass tiles for the players.");
         } catch (NoSuchElementException e4) {
             fail("Not enough valid input was present.");
         }
@@ -0,0 +1,90 @@
+import exceptions.GameWasNotInitialized;
+import exceptions.NotEnoughGrassTiles;
+import exceptions.PositionIsOutOfRange;
+import exceptions.SizeOfMapWasNotSet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * Tests used to test the implementation of MapPool.
+ */
+public class MapPoolTest {
+
+    private MapPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new MapPool(2, 2);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void poll_combinationThatWasNotWarmedIsAMiss() {
+        Assert.assertNull(pool.poll(MapCreator.MAP_TYPE.SAFE_MAP, 10));
+        Assert.assertTrue(pool.getHits() == 0 && pool.getMisses() == 1);
+    }
+
+    @Test
+    public void poll_warmedCombinationIsAHitAndIsRefilled() throws InterruptedException, PositionIsOutOfRange {
+        pool.warm(MapCreator.MAP_TYPE.HAZARDOUS_MAP, 12);
+        waitUntilReady(MapCreator.MAP_TYPE.HAZARDOUS_MAP, 12, 2);
+
+        final Map map = pool.poll(MapCreator.MAP_TYPE.HAZARDOUS_MAP, 12);
+        Assert.assertTrue(map instanceof HazardousMap);
+        Assert.assertTrue(map.getSize() == 12 && map.isSolvable());
+        Assert.assertTrue(pool.getHits() == 1 && pool.getMisses() == 0);
+
+        // The map taken is replaced, and every map is a different one
+        waitUntilReady(MapCreator.MAP_TYPE.HAZARDOUS_MAP, 12, 2);
+        Assert.assertTrue(pool.poll(MapCreator.MAP_TYPE.HAZARDOUS_MAP, 12) != map);
+    }
+
+    @Test
+    public void warm_neverKeepsMoreThanCapacity() throws InterruptedException {
+        pool.warm(MapCreator.MAP_TYPE.SAFE_MAP, 8);
+        pool.warm(MapCreator.MAP_TYPE.SAFE_MAP, 8);
+        waitUntilReady(MapCreator.MAP_TYPE.SAFE_MAP, 8, 2);
+        Thread.sleep(50);
+
+        Assert.assertTrue(pool.getReadyCount(MapCreator.MAP_TYPE.SAFE_MAP, 8) == 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void warm_sizeThatCannotBeGenerated() {
+        pool.warm(MapCreator.MAP_TYPE.SAFE_MAP, Map.MAX_MAP_SIZE + 1);
+    }
+
+    @Test
+    public void setup_gameTakesItsMapFromThePool() throws InterruptedException, GameWasNotInitialized,
+            SizeOfMapWasNotSet, PositionIsOutOfRange, NotEnoughGrassTiles {
+        // No collaborative mode, 2 players, safe mode and map size 10
+        final Game game = new Game(new ByteArrayInputStream("0\n2\n0\n10\n".getBytes()));
+
+        pool.warm(MapCreator.MAP_TYPE.SAFE_MAP, 10);
+        waitUntilReady(MapCreator.MAP_TYPE.SAFE_MAP, 10, 1);
+        game.setMapPool(pool);
+        game.setup();
+
+        Assert.assertTrue(pool.getHits() == 1);
+        Assert.assertTrue(game.getMap().getSize() == 10);
+        Assert.assertTrue(game.getPlayers()[0].getMap() == game.getMap());
+    }
+
+    private void waitUntilReady(final MapCreator.MAP_TYPE type, final int size, final int count)
+            throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+
+        while (pool.getReadyCount(type, size) < count) {
+            Assert.assertTrue("Maps were not generated in time.", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -1,9 +1,12 @@
-import exceptions.MapWasAlreadyInitialized;
+import exceptions.DistanceFieldWasNotComputed;
+import exceptions.NotEnoughGrassTiles;
 import exceptions.PositionIsOutOfRange;
 import exceptions.SizeOfMapWasNotSet;
 import org.junit.*;
 
-import java.lang.reflect.Field;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -17,19 +20,11 @@ public class MapTest {
     private Map mapInstance;
 
     @Before
-    public void setUp() throws MapWasAlreadyInitialized {
+    public void setUp() {
         // Can be anything or can use mocking
         mapInstance = new SafeMap();
     }
 
-    @After
-    public void tearDown() throws NoSuchFieldException, IllegalAccessException {
-        // Clear Map instance
-        Field instance = Map.class.getDeclaredField("instance");
-        instance.setAccessible(true);
-        instance.set(null, null);
-    }
-
     @Test
     public void setMapSize_xAndYAreNotEqual() {
         int x = 5, y = 6, players = 3;
@@ -137,7 +132,8 @@ public class MapTest {
     }
 
     @Test
-    public void setInitialPlayerPosition_checkIfTileIsGrassTile() throws PositionIsOutOfRange, SizeOfMapWasNotSet {
+    public void setInitialPlayerPosition_checkIfTileIsGrassTile()
+            throws PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
         int size = 10, playerID = 1;
         Player player = new Player(playerID);
 
@@ -149,7 +145,8 @@ public class MapTest {
     }
 
     @Test(expected = SizeOfMapWasNotSet.class)
-    public void setInitialPlayerPosition_sizeWasNotSet() throws PositionIsOutOfRange, SizeOfMapWasNotSet {
+    public void setInitialPlayerPosition_sizeWasNotSet()
+            throws PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
         int playerID = 1;
         Player player = new Player(playerID);
 
@@ -160,7 +157,352 @@ public class MapTest {
     public void getMapSize_getterValueMatchesSetterValue() {
         int size = 30, players = 8;
         Assume.assumeTrue(mapInstance.setMapSize(size, size, players));
-        Assert.assertTrue(Map.getSize() == size);
+        Assert.assertTrue(mapInstance.getSize() == size);
+    }
+
+    @Test
+    public void setMapSize_chunkedModeAcceptsMapsLargerThan50() {
+        int x = 1000000, y = 1000000, players = 4;
+        mapInstance.setChunkedMode(1);
+
+        Assert.assertTrue(mapInstance.getMaxMapSize() == 1000000);
+        Assert.assertTrue("Map size " + x + " is correct in chunked mode.",
+                mapInstance.setMapSize(x, y, players));
+    }
+
+    @Test
+    public void generate_chunkedModeOnlyGeneratesTouchedChunks() throws PositionIsOutOfRange, SizeOfMapWasNotSet {
+        int size = 1000000, players = 4;
+        mapInstance.setChunkedMode(1);
+        Assume.assumeTrue(mapInstance.setMapSize(size, size, players));
+        mapInstance.generate();
+
+        mapInstance.getTileType(size - 1, size - 1);
+        mapInstance.getTileType(size - 2, size - 1);
+        Assert.assertTrue(((ChunkedTileStorage) mapInstance.tiles).getChunkCount() == 1);
+    }
+
+    @Test
+    public void generate_chunkedModeSameSeedGivesSameMap() throws PositionIsOutOfRange, SizeOfMapWasNotSet {
+        int size = 600, players = 4;
+        final Map.TILE_TYPE[] first = new Map.TILE_TYPE[size];
+        mapInstance.setChunkedMode(42);
+        Assume.assumeTrue(mapInstance.setMapSize(size, size, players));
+
+        mapInstance.generate();
+        for (int x = 0; x < size; x++) {
+            first[x] = mapInstance.getTileType(x, x);
+        }
+        mapInstance.generate();
+        for (int x = 0; x < size; x++) {
+            Assert.assertTrue(mapInstance.getTileType(x, x) == first[x]);
+        }
+    }
+
+    @Test
+    public void generate_mappedModeWritesTheMapToTheFile() throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet {
+        int size = 60, players = 4, treasureCount = 0;
+        final File file = File.createTempFile("map", ".tiles");
+        file.deleteOnExit();
+        mapInstance.setMappedMode(file);
+        Assume.assumeTrue(mapInstance.setMapSize(size, size, players));
+        mapInstance.generate();
+
+        final MappedTileStorage reopened = MappedTileStorage.open(file);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                Assert.assertTrue(reopened.getTile(x, y) == mapInstance.getTileType(x, y));
+                if (reopened.getTile(x, y) == Map.TILE_TYPE.TREASURE) {
+                    treasureCount++;
+                }
+            }
+        }
+        Assert.assertTrue("There is suppose to be only 1 treasure.", treasureCount == 1);
+    }
+
+    @Test(expected = DistanceFieldWasNotComputed.class)
+    public void isSolvable_largeMappedMapHasNoDistances() throws IOException, SizeOfMapWasNotSet {
+        int size = Map.MAX_MAPPED_DISTANCE_FIELD_SIZE + 1, players = 4;
+        final File file = File.createTempFile("map", ".tiles");
+        file.deleteOnExit();
+        mapInstance.setMappedMode(file);
+        Assume.assumeTrue(mapInstance.setMapSize(size, size, players));
+        mapInstance.generate();
+        mapInstance.isSolvable();
+    }
+
+    @Test
+    public void openMappedFile_existingMapIsUsedWithoutGenerating() throws IOException, PositionIsOutOfRange {
+        int size = 70;
+        final File file = File.createTempFile("map", ".tiles");
+        file.deleteOnExit();
+        final MappedTileStorage storage = MappedTileStorage.create(file, size);
+        storage.setTile(69, 1, Map.TILE_TYPE.TREASURE);
+        storage.flush();
+
+        Assert.assertTrue(mapInstance.openMappedFile(file));
+        Assert.assertTrue(mapInstance.getSize() == size);
+        Assert.assertTrue(mapInstance.getTileType(69, 1) == Map.TILE_TYPE.TREASURE);
+        Assert.assertTrue(mapInstance.getTileType(1, 69) == Map.TILE_TYPE.GRASS);
+    }
+
+    @Test
+    public void openMappedFile_sizeWasAlreadySet() throws IOException {
+        int size = 10, players = 4;
+        final File file = File.createTempFile("map", ".tiles");
+        file.deleteOnExit();
+        MappedTileStorage.create(file, size).flush();
+        Assume.assumeTrue(mapInstance.setMapSize(size, size, players));
+
+        Assert.assertFalse(mapInstance.openMappedFile(file));
+    }
+
+    @Test
+    public void generate_seededModeGivesTheSameMapForAnyNumberOfThreads() throws SizeOfMapWasNotSet {
+        int size = 50, players = 4;
+        final int[] threads = {2, 3, 8};
+        Assume.assumeTrue(mapInstance.setMapSize(size, size, players));
+
+        mapInstance.setSeededMode(99, 1);
+        mapInstance.generate();
+        final TileStorage first = mapInstance.tiles;
+
+        for (final int count : threads) {
+            mapInstance.setSeededMode(99, count);
+            mapInstance.generate();
+            Assert.assertTrue(count + " threads gave a different map.", sameTiles(first, mapInstance.tiles, size));
+        }
+    }
+
+    @Test
+    public void generate_seededModeManyRegionsGiveTheExactAmountOfWater() throws IOException, SizeOfMapWasNotSet {
+        // A mapped map so that the map is larger than 50 and has many regions
+        int size = 333, players = 4;
+        final File file = File.createTempFile("map", ".tiles");
+        file.deleteOnExit();
+        mapInstance.setMappedMode(file);
+        Assume.assumeTrue(mapInstance.setMapSize(size, size, players));
+
+        mapInstance.setSeededMode(5, 4);
+        mapInstance.generate();
+        final PackedTileStorage first = copyTiles(mapInstance.tiles, size);
+        mapInstance.setSeededMode(5, 1);
+        mapInstance.generate();
+
+        Assert.assertTrue(sameTiles(first, mapInstance.tiles, size));
+        Assert.assertTrue(countTiles(first, size, size, Map.TILE_TYPE.WATER)
+                == (int) Math.ceil(((double) size * size / 100) * 10));
+        Assert.assertTrue(countTiles(first, size, size, Map.TILE_TYPE.TREASURE) == 1);
+    }
+
+    @Test
+    public void generate_seededModeDifferentSeedsGiveDifferentMaps() throws SizeOfMapWasNotSet {
+        int size = 50, players = 4;
+        Assume.assumeTrue(mapInstance.setMapSize(size, size, players));
+
+        mapInstance.setSeededMode(1, 2);
+        mapInstance.generate();
+        final TileStorage first = mapInstance.tiles;
+        mapInstance.setSeededMode(2, 2);
+        mapInstance.generate();
+
+        Assert.assertFalse(sameTiles(first, mapInstance.tiles, size));
+    }
+
+    @Test
+    public void placeWater_exactAmountOfWaterForAnyPercentage() {
+        final int width = 23, height = 17;
+        final int[] percentages = {0, 10, 35, 50, 90, 99};
+
+        for (final int percentage : percentages) {
+            final PackedTileStorage storage = new PackedTileStorage(width, height);
+            storage.setTile(5, 3, Map.TILE_TYPE.TREASURE);
+            Map.placeWater(storage, width, height, percentage, 3 * width + 5, new Random(percentage));
+
+            Assert.assertTrue("Percentage " + percentage + " gave the wrong amount of water.",
+                    countTiles(storage, width, height, Map.TILE_TYPE.WATER)
+                            == (int) Math.ceil(((double) width * height / 100) * percentage));
+            Assert.assertTrue(storage.getTile(5, 3) == Map.TILE_TYPE.TREASURE);
+        }
+    }
+
+    @Test
+    public void placeWater_fullPercentageLeavesOnlyTheTreasure() {
+        final int width = 10, height = 10;
+        final PackedTileStorage storage = new PackedTileStorage(width, height);
+        storage.setTile(9, 9, Map.TILE_TYPE.TREASURE);
+        Map.placeWater(storage, width, height, 100, 99, new Random());
+
+        Assert.assertTrue(countTiles(storage, width, height, Map.TILE_TYPE.WATER) == width * height - 1);
+        Assert.assertTrue(storage.getTile(9, 9) == Map.TILE_TYPE.TREASURE);
+    }
+
+    @Test
+    public void placeWater_storageWithoutTreasure() {
+        final int width = 8, height = 8;
+        final PackedTileStorage storage = new PackedTileStorage(width, height);
+        Map.placeWater(storage, width, height, 100, -1, new Random());
+
+        Assert.assertTrue(countTiles(storage, width, height, Map.TILE_TYPE.WATER) == width * height);
+    }
+
+    @Test
+    public void generate_generatedMapIsSolvable() throws PositionIsOutOfRange {
+        generateMap(20);
+        int reachable = 0, grass = 0;
+
+        Assert.assertTrue(mapInstance.isSolvable());
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 20; y++) {
+                if (mapInstance.getTileType(x, y) == Map.TILE_TYPE.TREASURE) {
+                    Assert.assertTrue(mapInstance.getDistanceToTreasure(x, y) == 0);
+                } else if (mapInstance.getTileType(x, y) == Map.TILE_TYPE.WATER) {
+                    Assert.assertTrue(mapInstance.getDistanceToTreasure(x, y) == -1);
+                } else {
+                    grass++;
+                    reachable += mapInstance.isReachableSpawn(x, y) ? 1 : 0;
+                }
+            }
+        }
+        Assert.assertTrue(reachable * 100 >= grass * Map.MIN_REACHABLE_GRASS_PERCENTAGE);
+    }
+
+    @Test
+    public void computeDistanceField_distancesGoAroundWater() throws PositionIsOutOfRange {
+        mapInstance.setMapSize(5, 5, 2);
+        final PackedTileStorage storage = new PackedTileStorage(5, 5);
+        // A wall of Water on column 1, open at the bottom row
+        for (int y = 0; y < 4; y++) {
+            storage.setTile(1, y, Map.TILE_TYPE.WATER);
+        }
+        storage.setTile(0, 0, Map.TILE_TYPE.TREASURE);
+        mapInstance.tiles = storage;
+        mapInstance.computeDistanceField(null);
+
+        Assert.assertTrue(mapInstance.getDistanceToTreasure(0, 4) == 4);
+        Assert.assertTrue(mapInstance.getDistanceToTreasure(1, 4) == 5);
+        Assert.assertTrue(mapInstance.getDistanceToTreasure(2, 0) == 10);
+        Assert.assertTrue(mapInstance.getDistanceToTreasure(1, 0) == -1);
+    }
+
+    @Test
+    public void computeDistanceField_enclosedTreasureIsRepaired()
+            throws PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        final int size = 10;
+        mapInstance.setMapSize(size, size, 2);
+        final PackedTileStorage storage = new PackedTileStorage(size, size);
+        storage.setTile(5, 5, Map.TILE_TYPE.TREASURE);
+        storage.setTile(4, 5, Map.TILE_TYPE.WATER);
+        storage.setTile(6, 5, Map.TILE_TYPE.WATER);
+        storage.setTile(5, 4, Map.TILE_TYPE.WATER);
+        storage.setTile(5, 6, Map.TILE_TYPE.WATER);
+        mapInstance.tiles = storage;
+
+        mapInstance.computeDistanceField(null);
+        Assert.assertFalse(mapInstance.isSolvable());
+
+        mapInstance.computeDistanceField(new Random(1));
+        Assert.assertTrue(mapInstance.isSolvable());
+        Assert.assertTrue(countTiles(storage, size, size, Map.TILE_TYPE.WATER) == 4);
+
+        final Player player = new Player(1);
+        mapInstance.setInitialPlayerPosition(player);
+        Assert.assertTrue(mapInstance.isReachableSpawn(player.getPosition().getX(), player.getPosition().getY()));
+    }
+
+    @Test
+    public void setInitialPlayerPositions_playersAreOnDistinctGrassTiles()
+            throws PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        final int size = 10;
+        final Player[] players = new Player[40];
+        final boolean[] taken = new boolean[size * size];
+
+        generateMap(size);
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player(i + 1);
+        }
+        mapInstance.setInitialPlayerPositions(players);
+
+        for (final Player player : players) {
+            final int x = player.getPosition().getX(), y = player.getPosition().getY();
+            Assert.assertTrue(player.getMap() == mapInstance);
+            Assert.assertTrue(mapInstance.isReachableSpawn(x, y));
+            Assert.assertFalse("Two players share a tile.", taken[y * size + x]);
+            taken[y * size + x] = true;
+        }
+    }
+
+    @Test(expected = NotEnoughGrassTiles.class)
+    public void setInitialPlayerPositions_morePlayersThanGrassTiles()
+            throws PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        final Player[] players = new Player[25];
+
+        generateMap(5);
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player(i + 1);
+        }
+        mapInstance.setInitialPlayerPositions(players);
+    }
+
+    @Test
+    public void setInitialPlayerPositions_chunkedMapWithoutIndex()
+            throws PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        final Player[] players = {new Player(1), new Player(2), new Player(3)};
+
+        mapInstance.setChunkedMode(7);
+        mapInstance.setMapSize(100000, 100000, 2);
+        mapInstance.generate();
+        mapInstance.setInitialPlayerPositions(players);
+
+        for (final Player player : players) {
+            Assert.assertTrue(mapInstance.getTileType(player.getPosition().getX(),
+                    player.getPosition().getY()) == Map.TILE_TYPE.GRASS);
+        }
+    }
+
+    @Test(expected = NotEnoughGrassTiles.class)
+    public void setInitialPlayerPositions_mapWithoutIndexAndTooFewGrassTiles()
+            throws IOException, PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        // Too large for an index of the spawn tiles, and all Water except for a single Grass tile
+        final int size = Map.MAX_MAPPED_DISTANCE_FIELD_SIZE + 1;
+        final File file = File.createTempFile("map", ".tiles");
+        file.deleteOnExit();
+        final MappedTileStorage storage = MappedTileStorage.create(file, size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                storage.setTile(x, y, Map.TILE_TYPE.WATER);
+            }
+        }
+        storage.setTile(0, 0, Map.TILE_TYPE.GRASS);
+        storage.flush();
+
+        Assume.assumeTrue(mapInstance.openMappedFile(file));
+        mapInstance.setInitialPlayerPositions(new Player[]{new Player(1), new Player(2)});
+    }
+
+    @Test(expected = NotEnoughGrassTiles.class)
+    public void setInitialPlayerPosition_mapWithoutGrassTiles()
+            throws PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        final PackedTileStorage storage = new PackedTileStorage(5, 5);
+        mapInstance.setMapSize(5, 5, 2);
+        for (int y = 0; y < 5; y++) {
+            for (int x = 0; x < 5; x++) {
+                storage.setTile(x, y, Map.TILE_TYPE.WATER);
+            }
+        }
+        storage.setTile(2, 2, Map.TILE_TYPE.TREASURE);
+        mapInstance.tiles = storage;
+        mapInstance.computeDistanceField(null);
+
+        mapInstance.setInitialPlayerPosition(new Player(1));
+    }
+
+    @Test(expected = DistanceFieldWasNotComputed.class)
+    public void isSolvable_chunkedMapHasNoDistances() throws SizeOfMapWasNotSet {
+        mapInstance.setChunkedMode(1);
+        mapInstance.setMapSize(1000, 1000, 2);
+        mapInstance.generate();
+        mapInstance.isSolvable();
     }
 
     @Test
@@ -179,4 +521,37 @@ public class MapTest {
             fail("Map size inserted was incorrect.");
         }
     }
-}
\ No newline at end of file
+
+    private int countTiles(final TileStorage storage, final int width, final int height, final Map.TILE_TYPE type) {
+        int count = 0;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (storage.getTile(x, y) == type) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean sameTiles(final TileStorage first, final TileStorage second, final int size) {
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (first.getTile(x, y) != second.getTile(x, y)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private PackedTileStorage copyTiles(final TileStorage storage, final int size) {
+        final PackedTileStorage copy = new PackedTileStorage(size, size);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                copy.setTile(x, y, storage.getTile(x, y));
+            }
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,77 @@
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ReadOnlyBufferException;
+
+/**
+ * Tests used to test the implementation of MappedTileStorage.
+ */
+public class MappedTileStorageTest {
+
+    private File file;
+    private final int size = 9;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("map", ".tiles");
+    }
+
+    @After
+    public void tearDown() {
+        // Mapped files cannot always be deleted while still mapped
+        file.deleteOnExit();
+    }
+
+    @Test
+    public void create_newStorageIsAllGrass() throws IOException {
+        final MappedTileStorage storage = MappedTileStorage.create(file, size);
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                Assert.assertTrue(storage.getTile(x, y) == Map.TILE_TYPE.GRASS);
+            }
+        }
+    }
+
+    @Test
+    public void setTile_getterValueMatchesSetterValue() throws IOException {
+        final MappedTileStorage storage = MappedTileStorage.create(file, size);
+        storage.setTile(3, 4, Map.TILE_TYPE.WATER);
+        storage.setTile(4, 4, Map.TILE_TYPE.TREASURE);
+
+        Assert.assertTrue(storage.getTile(3, 4) == Map.TILE_TYPE.WATER);
+        Assert.assertTrue(storage.getTile(4, 4) == Map.TILE_TYPE.TREASURE);
+        Assert.assertTrue(storage.getTile(5, 4) == Map.TILE_TYPE.GRASS);
+    }
+
+    @Test
+    public void open_tilesWrittenBeforeAreReadBack() throws IOException {
+        final MappedTileStorage storage = MappedTileStorage.create(file, size);
+        storage.setTile(8, 8, Map.TILE_TYPE.TREASURE);
+        storage.setTile(0, 1, Map.TILE_TYPE.WATER);
+        storage.flush();
+
+        final MappedTileStorage reopened = MappedTileStorage.open(file);
+        Assert.assertTrue(reopened.getSize() == size);
+        Assert.assertTrue(reopened.getTile(8, 8) == Map.TILE_TYPE.TREASURE);
+        Assert.assertTrue(reopened.getTile(0, 1) == Map.TILE_TYPE.WATER);
+        Assert.assertTrue(reopened.getTile(1, 0) == Map.TILE_TYPE.GRASS);
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void open_storageIsReadOnly() throws IOException {
+        MappedTileStorage.create(file, size).flush();
+        MappedTileStorage.open(file).setTile(0, 0, Map.TILE_TYPE.WATER);
+    }
+
+    @Test(expected = IOException.class)
+    public void open_fileIsNotAMapFile() throws IOException {
+        FileUtils.writeStringToFile(file, "This is not a map file.");
+        MappedTileStorage.open(file);
+    }
+}
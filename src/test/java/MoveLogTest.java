@@ -0,0 +1,76 @@
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests used to test the implementation of MoveLog.
+ */
+public class MoveLogTest {
+
+    private MoveLog log;
+
+    @Before
+    public void setUp() {
+        log = new MoveLog();
+    }
+
+    @Test
+    public void replay_emptyLogHasNoPositions() {
+        Assert.assertTrue(log.replay().isEmpty());
+    }
+
+    @Test
+    public void replay_movesAndJumpsComeBackInOrder() {
+        final List<Position> positions = new ArrayList<Position>();
+        final Random rand = new Random(1);
+        Position previous = null;
+
+        // A random walk with a jump now and then, long enough to fill several words
+        for (int i = 0; i < 1000; i++) {
+            final Position next;
+            if (previous == null || rand.nextInt(20) == 0) {
+                next = new Position(rand.nextInt(50), rand.nextInt(50));
+            } else {
+                final int direction = rand.nextInt(4);
+                next = new Position(previous.getX() + (direction == 0 ? 1 : direction == 1 ? -1 : 0),
+                        previous.getY() + (direction == 2 ? 1 : direction == 3 ? -1 : 0));
+            }
+            log.record(previous, next);
+            positions.add(next);
+            previous = next;
+        }
+
+        final List<Position> replayed = log.replay();
+        Assert.assertTrue(log.size() == positions.size() && replayed.size() == positions.size());
+        for (int i = 0; i < positions.size(); i++) {
+            Assert.assertTrue(replayed.get(i).equals(positions.get(i)));
+        }
+    }
+
+    @Test
+    public void record_stayingOnTheSameTileIsAJump() {
+        log.record(null, new Position(3, 3));
+        log.record(new Position(3, 3), new Position(3, 3));
+        log.record(new Position(3, 3), new Position(3, 4));
+
+        Assert.assertTrue(log.getJumpCount() == 2);
+        Assert.assertTrue(log.replay().get(2).equals(new Position(3, 4)));
+    }
+
+    @Test
+    public void getFootprint_movesTakeTwoBitsEach() {
+        Position previous = new Position(0, 0);
+        log.record(null, previous);
+        for (int i = 1; i < 3200; i++) {
+            final Position next = new Position(previous.getX() + (i % 2 == 0 ? 1 : 0), previous.getY() + (i % 2));
+            log.record(previous, next);
+            previous = next;
+        }
+        // 3200 steps at 32 steps per word fit in 128 words, plus the initial jump arrays
+        Assert.assertTrue(log.getFootprint() == 128 * 8 + 3 * 4 * 4);
+    }
+}
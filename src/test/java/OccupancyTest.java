@@ -0,0 +1,98 @@
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Tests used to test the implementation of Occupancy.
+ */
+public class OccupancyTest {
+
+    private Occupancy occupancy;
+    private final int size = 10;
+
+    @Before
+    public void setUp() {
+        occupancy = new Occupancy(size);
+    }
+
+    @Test
+    public void move_playerOnlyOccupiesItsLatestTile() {
+        final Player player = new Player(1);
+
+        occupancy.move(player, 3, 4);
+        occupancy.move(player, 3, 5);
+
+        Assert.assertFalse(occupancy.isOccupied(3, 4));
+        Assert.assertTrue(occupancy.isOccupied(3, 5));
+        Assert.assertTrue(occupancy.getFirstOccupant(3, 5) == player);
+        Assert.assertTrue(occupancy.getPlayerCount() == 1);
+    }
+
+    @Test
+    public void getOccupants_allPlayersOnTheTileMostRecentFirst() {
+        final Player players[] = {new Player(1), new Player(2), new Player(3)};
+
+        for (final Player p : players) {
+            occupancy.move(p, 2, 2);
+        }
+        // Move the one in the middle of the list away
+        occupancy.move(players[1], 2, 3);
+
+        final List<Player> occupants = occupancy.getOccupants(2, 2);
+        Assert.assertTrue(occupants.size() == 2);
+        Assert.assertTrue(occupants.get(0) == players[2] && occupants.get(1) == players[0]);
+        Assert.assertTrue(occupancy.getNextOccupant(players[2]) == players[0]);
+        Assert.assertTrue(occupancy.getNextOccupant(players[0]) == null);
+        Assert.assertTrue(occupancy.getFirstOccupant(2, 3) == players[1]);
+    }
+
+    @Test
+    public void move_outsideTheMapOccupiesNoTile() {
+        final Player player = new Player(1);
+
+        occupancy.move(player, 1, 1);
+        occupancy.move(player, size, 1);
+
+        Assert.assertFalse(occupancy.isOccupied(1, 1));
+        Assert.assertFalse(occupancy.isOccupied(size, 1));
+        Assert.assertTrue(occupancy.getPlayerCount() == 1);
+    }
+
+    @Test
+    public void remove_removedPlayerNoLongerOccupiesItsTile() {
+        final Player first = new Player(1), second = new Player(2), third = new Player(3);
+
+        occupancy.move(first, 0, 0);
+        occupancy.move(second, 0, 0);
+        occupancy.remove(first);
+        // The slot of the removed player is used again
+        occupancy.move(third, 9, 9);
+
+        Assert.assertTrue(occupancy.getOccupants(0, 0).size() == 1);
+        Assert.assertTrue(occupancy.getFirstOccupant(0, 0) == second);
+        Assert.assertTrue(occupancy.getFirstOccupant(9, 9) == third);
+        Assert.assertTrue(occupancy.getPlayerCount() == 2);
+    }
+
+    @Test
+    public void move_thousandsOfPlayersOnALargeMap() {
+        final int largeSize = Occupancy.MAX_GRID_MAP_SIZE * 10;
+        final Occupancy large = new Occupancy(largeSize);
+        final Player players[] = new Player[5000];
+
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player(i);
+            large.move(players[i], i % 100, i / 100);
+        }
+        for (int i = 0; i < players.length; i += 2) {
+            large.move(players[i], largeSize - 1, largeSize - 1);
+        }
+
+        Assert.assertTrue(large.getOccupants(largeSize - 1, largeSize - 1).size() == players.length / 2);
+        for (int i = 0; i < players.length; i++) {
+            Assert.assertTrue(large.isOccupied(i % 100, i / 100) == (i % 2 == 1));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests used to test the implementation of PackedTileStorage.
+ */
+public class PackedTileStorageTest {
+
+    private PackedTileStorage storage;
+    private final int width = 7, height = 9;
+
+    @Before
+    public void setUp() {
+        // Odd sizes so that rows do not start on a word boundary
+        storage = new PackedTileStorage(width, height);
+    }
+
+    @Test
+    public void getTile_newStorageIsAllGrass() {
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                Assert.assertTrue(storage.getTile(x, y) == Map.TILE_TYPE.GRASS);
+            }
+        }
+    }
+
+    @Test
+    public void setTile_getterValueMatchesSetterValue() {
+        storage.setTile(3, 4, Map.TILE_TYPE.WATER);
+        storage.setTile(6, 8, Map.TILE_TYPE.TREASURE);
+
+        Assert.assertTrue(storage.getTile(3, 4) == Map.TILE_TYPE.WATER);
+        Assert.assertTrue(storage.getTile(6, 8) == Map.TILE_TYPE.TREASURE);
+    }
+
+    @Test
+    public void setTile_neighbouringTilesAreNotChanged() {
+        storage.setTile(3, 4, Map.TILE_TYPE.TREASURE);
+        storage.setTile(3, 4, Map.TILE_TYPE.WATER);
+
+        Assert.assertTrue(storage.getTile(2, 4) == Map.TILE_TYPE.GRASS);
+        Assert.assertTrue(storage.getTile(3, 4) == Map.TILE_TYPE.WATER);
+        Assert.assertTrue(storage.getTile(4, 4) == Map.TILE_TYPE.GRASS);
+        Assert.assertTrue(storage.getTile(3, 3) == Map.TILE_TYPE.GRASS);
+        Assert.assertTrue(storage.getTile(3, 5) == Map.TILE_TYPE.GRASS);
+    }
+
+    @Test
+    public void setTile_everyTileKeepsItsOwnValue() {
+        final Map.TILE_TYPE[] types = Map.TILE_TYPE.values();
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                storage.setTile(x, y, types[(x + y) % types.length]);
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Assert.assertTrue(storage.getTile(x, y) == types[(x + y) % types.length]);
+            }
+        }
+    }
+
+    @Test
+    public void getFootprint_twoBitsPerTile() {
+        // 50 x 50 tiles at 32 tiles per word need 79 words
+        Assert.assertTrue(new PackedTileStorage(50, 50).getFootprint() == 79 * 8);
+    }
+
+    @Test
+    public void getWidthAndHeight_constructorValuesMatchGetterValues() {
+        Assert.assertTrue(storage.getWidth() == width);
+        Assert.assertTrue(storage.getHeight() == height);
+    }
+}
@@ -0,0 +1,65 @@
+import exceptions.PositionIsOutOfRange;
+import exceptions.SizeOfMapWasNotSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests used to test the implementation of PipelineMap.
+ */
+public class PipelineMapTest {
+
+    @Test
+    public void generate_tilesComeFromThePipeline() throws SizeOfMapWasNotSet, PositionIsOutOfRange {
+        final int size = 20;
+        final Map map = new PipelineMap(new GeneratorPipeline()
+                .add(new UniformWaterStage(30))
+                .add(new TreasureStage()), 10);
+        int water = 0, treasure = 0;
+
+        Assert.assertTrue(map.setMapSize(size, size, 2));
+        map.generate();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                water += map.getTileType(x, y) == Map.TILE_TYPE.WATER ? 1 : 0;
+                treasure += map.getTileType(x, y) == Map.TILE_TYPE.TREASURE ? 1 : 0;
+            }
+        }
+        Assert.assertTrue(treasure == 1);
+        Assert.assertTrue(water == size * size * 30 / 100);
+        Assert.assertTrue(map.isSolvable());
+    }
+
+    @Test
+    public void generate_seededModeGivesTheSameMap() throws SizeOfMapWasNotSet, PositionIsOutOfRange {
+        final int size = 30;
+        final Map first = islandMap(), second = islandMap();
+
+        first.setSeededMode(11, 1);
+        second.setSeededMode(11, 1);
+        Assert.assertTrue(first.setMapSize(size, size, 2) && second.setMapSize(size, size, 2));
+        first.generate();
+        second.generate();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                Assert.assertTrue(first.getTileType(x, y) == second.getTileType(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void generate_chunkedModeFallsBackToUniformWater() throws SizeOfMapWasNotSet, PositionIsOutOfRange {
+        final Map map = islandMap();
+
+        map.setChunkedMode(3);
+        Assert.assertTrue(map.setMapSize(1000, 1000, 2));
+        map.generate();
+        Assert.assertTrue(map.getTileType(500, 500) != null);
+    }
+
+    private Map islandMap() {
+        return new PipelineMap(new GeneratorPipeline()
+                .add(new IslandStage(40))
+                .add(new NoiseLakesStage(5, 6))
+                .add(new TreasureStage()), 30);
+    }
+}
@@ -0,0 +1,117 @@
+import exceptions.NotEnoughGrassTiles;
+import exceptions.PositionIsOutOfRange;
+import exceptions.SizeOfMapWasNotSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests used to test the implementation of PlayerRegistry.
+ */
+public class PlayerRegistryTest {
+
+    private Map map;
+    private PlayerRegistry registry;
+    private final int size = 50;
+
+    @Before
+    public void setUp() throws SizeOfMapWasNotSet {
+        map = new HazardousMap();
+        map.setMapSize(size, size, 2);
+        map.generate();
+        registry = new PlayerRegistry(map, 2);
+    }
+
+    @Test
+    public void add_getterValuesMatchAddedValues() throws PositionIsOutOfRange {
+        // More players than the initial capacity so that the arrays grow
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(registry.add(100 + i, i % 3, i, 2 * i) == i);
+        }
+
+        Assert.assertTrue(registry.size() == 10);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(registry.getID(i) == 100 + i);
+            Assert.assertTrue(registry.getTeam(i) == i % 3);
+            Assert.assertTrue(registry.getPosition(i).equals(new Position(i, 2 * i)));
+            Assert.assertTrue(registry.getStartPosition(i).equals(new Position(i, 2 * i)));
+        }
+    }
+
+    @Test(expected = PositionIsOutOfRange.class)
+    public void add_positionOutsideTheMapCausesException() throws PositionIsOutOfRange {
+        registry.add(1, PlayerRegistry.NO_TEAM, size, 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getX_indexOfNoPlayerCausesException() throws PositionIsOutOfRange {
+        registry.add(1, PlayerRegistry.NO_TEAM, 0, 0);
+        registry.getX(1);
+    }
+
+    @Test
+    public void spawn_manyPlayersAllStartOnGrass()
+            throws PositionIsOutOfRange, SizeOfMapWasNotSet, NotEnoughGrassTiles {
+        for (int i = 0; i < 10000; i++) {
+            registry.spawn(i, PlayerRegistry.NO_TEAM);
+        }
+
+        Assert.assertTrue(registry.size() == 10000);
+        for (int i = 0; i < registry.size(); i++) {
+            Assert.assertTrue(map.getTileType(registry.getX(i), registry.getY(i)) == Map.TILE_TYPE.GRASS);
+        }
+    }
+
+    @Test
+    public void moveAll_playersMoveUnlessTheyWouldLeaveTheMap() throws PositionIsOutOfRange {
+        registry.add(1, PlayerRegistry.NO_TEAM, 0, 0);
+        registry.add(2, PlayerRegistry.NO_TEAM, 0, 0);
+        registry.add(3, PlayerRegistry.NO_TEAM, 5, 5);
+        registry.add(4, PlayerRegistry.NO_TEAM, 5, 5);
+
+        final int moved = registry.moveAll(new Game.MOVE_DIRECTION[]{
+                Game.MOVE_DIRECTION.UP, Game.MOVE_DIRECTION.RIGHT, Game.MOVE_DIRECTION.DOWN, null});
+
+        Assert.assertTrue(moved == 2);
+        Assert.assertTrue(registry.getPosition(0).equals(new Position(0, 0)));
+        Assert.assertTrue(registry.getPosition(1).equals(new Position(1, 0)));
+        Assert.assertTrue(registry.getPosition(2).equals(new Position(5, 6)));
+        Assert.assertTrue(registry.getPosition(3).equals(new Position(5, 5)));
+    }
+
+    @Test
+    public void resolveAll_waterSendsBackAndTreasureWins() throws PositionIsOutOfRange, SizeOfMapWasNotSet {
+        Position water, treasure;
+        final int[] winners = new int[3];
+
+        // Generate the map again until both tiles are found on the same map
+        while ((water = findTileWithGrassOnLeft(Map.TILE_TYPE.WATER)) == null
+                | (treasure = findTileWithGrassOnLeft(Map.TILE_TYPE.TREASURE)) == null) {
+            map.generate();
+        }
+
+        registry.add(1, PlayerRegistry.NO_TEAM, water.getX() - 1, water.getY());
+        registry.add(2, PlayerRegistry.NO_TEAM, treasure.getX() - 1, treasure.getY());
+        registry.add(3, PlayerRegistry.NO_TEAM, treasure.getX() - 1, treasure.getY());
+        registry.moveAll(new Game.MOVE_DIRECTION[]{
+                Game.MOVE_DIRECTION.RIGHT, Game.MOVE_DIRECTION.RIGHT, null});
+
+        Assert.assertTrue(registry.resolveAll(winners) == 1 && winners[0] == 1);
+        Assert.assertTrue(registry.getPosition(0).equals(registry.getStartPosition(0)));
+        Assert.assertTrue(registry.getPosition(1).equals(treasure));
+    }
+
+    /**
+     * Finds a tile of the specified type which has a Grass tile on its left.
+     */
+    private Position findTileWithGrassOnLeft(final Map.TILE_TYPE type) throws PositionIsOutOfRange {
+        for (int y = 0; y < size; y++) {
+            for (int x = 1; x < size; x++) {
+                if (map.getTileType(x, y) == type && map.getTileType(x - 1, y) == Map.TILE_TYPE.GRASS) {
+                    return new Position(x, y);
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -1,11 +1,8 @@
 import exceptions.InitialPlayerPositionWasNotSet;
-import exceptions.MapWasAlreadyInitialized;
 import exceptions.PlayerDidNotHaveAnyPositionsYet;
 import exceptions.PositionIsOutOfRange;
 import org.junit.*;
 
-import java.lang.reflect.Field;
-
 import static org.junit.Assert.fail;
 
 /**
@@ -21,14 +18,6 @@ public class PlayerTest {
         player = new Player(id);
     }
 
-    @After
-    public void tearDown() throws NoSuchFieldException, IllegalAccessException {
-        // Clear Map instance
-        Field instance = Map.class.getDeclaredField("instance");
-        instance.setAccessible(true);
-        instance.set(null, null);
-    }
-
     @Test
     public void getId_constructorValueMatchesGetterValue() {
         Assert.assertTrue(player.getID() == id);
@@ -57,18 +46,18 @@ public class PlayerTest {
         final Position secondStartPos = new Position(startX - 1, startY - 1);
         final Position arbitraryPos = new Position(startX - 2, startY - 2);
 
-        // By the end of this part, visited list = [firstStartPos]
+        // By the end of this part, start position = firstStartPos
         setStartPosition();
         Assume.assumeTrue(player.getPosition().equals(firstStartPos));
 
-        // By the end of this part, visited list = [firstStartPos, secondStartPos]
+        // By the end of this part, position = secondStartPos
         player.setPosition(secondStartPos);
         Assume.assumeTrue(player.getPosition().equals(secondStartPos));
 
-        // By the end of this part, visited list = [secondStartPos, firstStartPos]
+        // By the end of this part, start position = secondStartPos
         player.resetInitialPosition();
 
-        // By the end of this part, visited list = [secondStartPos, firstStartPos, arbitraryPos]
+        // By the end of this part, position = arbitraryPos
         player.setPosition(arbitraryPos);
         Assume.assumeTrue(player.getPosition().equals(arbitraryPos));
 
@@ -77,6 +66,58 @@ public class PlayerTest {
         Assert.assertTrue(player.getPosition().equals(secondStartPos));
     }
 
+    @Test
+    public void resetInitialPosition_positionsOfTeamMembersAreNotTheStartPosition() {
+        final Team team = new Team(1);
+        final Player teamMate = new Player(id + 1, team);
+        player = new Player(id, team);
+
+        setStartPosition();
+        teamMate.setPosition(new Position(startX + 1, startY));
+        player.resetInitialPosition();
+        Assert.assertTrue(player.getStartPosition().equals(new Position(startX, startY)));
+    }
+
+    @Test
+    public void setMoveLogging_logReplaysTheMovesOfThePlayer() {
+        player.setMoveLogging(true);
+        setStartPosition();
+        player.setPosition(new Position(startX + 1, startY));
+        player.backToStartPosition();
+
+        Assert.assertTrue(player.getMoveLog().replay().size() == 3);
+        Assert.assertTrue(player.getMoveLog().replay().get(1).equals(new Position(startX + 1, startY)));
+        player.setMoveLogging(false);
+        Assert.assertNull(player.getMoveLog());
+    }
+
+    @Test
+    public void getTurnDelta_onlyHoldsTheChangesOfTheTurn() {
+        generateMap(20);
+        setStartPosition();
+        player.endTurn();
+        player.setPosition(new Position(startX + 1, startY));
+        player.setPosition(new Position(startX, startY));
+
+        TurnDelta delta = player.getTurnDelta();
+        Assert.assertTrue(delta.getPreviousPosition().equals(new Position(startX, startY)));
+        Assert.assertFalse(delta.hasMoved());
+        Assert.assertTrue(delta.getRevealed().size() == 1 && delta.getRevealed().contains(startX + 1, startY));
+
+        player.endTurn();
+        delta = player.getTurnDelta();
+        Assert.assertTrue(delta.getRevealed().isEmpty());
+    }
+
+    @Test
+    public void addPosition_revisitedTileIsKeptOnce() {
+        generateMap(20);
+        for (int i = 0; i < 100; i++) {
+            Assume.assumeTrue(player.addPosition(new Position(startX, startY)));
+        }
+        Assert.assertTrue(player.getVisibility().getRevealedCount() == 1);
+    }
+
     @Test
     public void getTeam_noTeamMeansThatGetterReturnsNull() {
 
@@ -106,7 +147,7 @@ public class PlayerTest {
     }
 
     @Test
-    public void wasVisited_startPositionShouldBeVisited() throws PositionIsOutOfRange, MapWasAlreadyInitialized {
+    public void wasVisited_startPositionShouldBeVisited() throws PositionIsOutOfRange {
         setStartPosition();
         int mapSize = 20;
 
@@ -115,7 +156,7 @@ public class PlayerTest {
     }
 
     @Test
-    public void wasVisited_addedPositionShouldBeVisited() throws PositionIsOutOfRange, MapWasAlreadyInitialized {
+    public void wasVisited_addedPositionShouldBeVisited() throws PositionIsOutOfRange {
         setStartPosition();
         int mapSize = 20;
         Position posToAdd = new Position(5, 10);
@@ -125,7 +166,7 @@ public class PlayerTest {
     }
 
     @Test
-    public void wasVisited_nonStartPositionShouldNotBeVisited() throws PositionIsOutOfRange, MapWasAlreadyInitialized {
+    public void wasVisited_nonStartPositionShouldNotBeVisited() throws PositionIsOutOfRange {
         setStartPosition();
         int mapSize = 20;
 
@@ -134,7 +175,7 @@ public class PlayerTest {
     }
 
     @Test(expected = PositionIsOutOfRange.class)
-    public void wasVisited_negativeCoordinates() throws PositionIsOutOfRange, MapWasAlreadyInitialized {
+    public void wasVisited_negativeCoordinates() throws PositionIsOutOfRange {
         setStartPosition();
         int mapSize = 20;
 
@@ -143,7 +184,7 @@ public class PlayerTest {
     }
 
     @Test(expected = PositionIsOutOfRange.class)
-    public void wasVisited_xPositionGreaterThanMapSize() throws PositionIsOutOfRange, MapWasAlreadyInitialized {
+    public void wasVisited_xPositionGreaterThanMapSize() throws PositionIsOutOfRange {
         setStartPosition();
         int mapSize = 20;
 
@@ -152,7 +193,7 @@ public class PlayerTest {
     }
 
     @Test(expected = PositionIsOutOfRange.class)
-    public void wasVisited_yPositionGreaterThanMapSize() throws PositionIsOutOfRange, MapWasAlreadyInitialized {
+    public void wasVisited_yPositionGreaterThanMapSize() throws PositionIsOutOfRange {
         setStartPosition();
         int mapSize = 20;
 
@@ -175,12 +216,33 @@ public class PlayerTest {
         Assert.assertTrue(player.getPosition().equals(new Position(startX, startY)));
     }
 
-    private void generateMap(final int mapSize) throws MapWasAlreadyInitialized {
+    @Test
+    public void setPosition_occupancyOfTheMapFollowsThePlayer() {
+        generateMap(20);
+        final Occupancy occupancy = player.getMap().getOccupancy();
+
+        setStartPosition();
+        Assert.assertTrue(occupancy.getFirstOccupant(startX, startY) == player);
+        Assume.assumeTrue(player.setPosition(new Position(startX + 1, startY)));
+        Assert.assertFalse(occupancy.isOccupied(startX, startY));
+        Assert.assertTrue(occupancy.getFirstOccupant(startX + 1, startY) == player);
+    }
+
+    @Test
+    public void setMap_playerWithAPositionJoinsTheOccupancy() {
+        setStartPosition();
+        generateMap(20);
+
+        Assert.assertTrue(player.getMap().getOccupancy().getFirstOccupant(startX, startY) == player);
+    }
+
+    private void generateMap(final int mapSize) {
         int numberOfPlayers = 3;
 
         // Map is needed to set the size of the map used by wasVisited
         Map map = new SafeMap();
         Assume.assumeTrue(map.setMapSize(mapSize, mapSize, numberOfPlayers));
+        player.setMap(map);
     }
 
     private void setStartPosition() {
@@ -0,0 +1,140 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares {@link PositionSet} against ArrayList&lt;Position&gt; and HashSet&lt;Position&gt;
+ * when adding, finding and going through the tiles revealed on maps of several sizes, a
+ * quarter of the tiles being revealed. It is not a test (surefire does not pick it up) and
+ * is run by hand, JMH not being available to the build:
+ * <p>
+ * java -Xmx2g -cp target/classes:target/test-classes PositionCollectionsBenchmark
+ * <p>
+ * A list has to be scanned to find a tile, so its lookups are measured on a sample.
+ */
+public class PositionCollectionsBenchmark {
+
+    private static final int[] SIZES = {50, 200, 1000, 2000};
+    private static final int ROUNDS = 5;
+    private static final int LIST_LOOKUPS = 2000;
+
+    public static void main(String args[]) {
+        System.out.println("size\ttiles\tlist add\tlist contains\tlist iterate"
+                + "\thash add\thash contains\thash iterate\tset add\tset contains\tset iterate\t(ns/tile)");
+
+        for (final int size : SIZES) {
+            final int tiles = size * size / 4;
+            final int[] xs = new int[tiles], ys = new int[tiles];
+            final Random rand = new Random(size);
+
+            for (int i = 0; i < tiles; i++) {
+                xs[i] = rand.nextInt(size);
+                ys[i] = rand.nextInt(size);
+            }
+            System.out.println(size + "\t" + tiles + "\t" + benchmarkList(xs, ys) + "\t" + benchmarkHashSet(xs, ys)
+                    + "\t" + benchmarkPositionSet(xs, ys));
+        }
+    }
+
+    private static String benchmarkList(final int[] xs, final int[] ys) {
+        long add = 0, contains = 0, iterate = 0, found = 0;
+
+        // The first rounds are a warm up
+        for (int round = 0; round < ROUNDS; round++) {
+            final List<Position> list = new ArrayList<Position>();
+            long start = System.nanoTime();
+            for (int i = 0; i < xs.length; i++) {
+                // The list is only deduplicated by scanning it, as Player used to do
+                list.add(Position.valueOf(xs[i], ys[i]));
+            }
+            add = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < LIST_LOOKUPS; i++) {
+                if (list.contains(new Position(ys[i % ys.length], xs[i % xs.length]))) {
+                    found++;
+                }
+            }
+            contains = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (final Position position : list) {
+                found += position.getX();
+            }
+            iterate = System.nanoTime() - start;
+        }
+        return consume(found, format(add, xs.length) + "\t" + format(contains, LIST_LOOKUPS) + "\t"
+                + format(iterate, xs.length));
+    }
+
+    private static String benchmarkHashSet(final int[] xs, final int[] ys) {
+        long add = 0, contains = 0, iterate = 0, found = 0;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            final Set<Position> set = new HashSet<Position>();
+            long start = System.nanoTime();
+            for (int i = 0; i < xs.length; i++) {
+                set.add(Position.valueOf(xs[i], ys[i]));
+            }
+            add = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < xs.length; i++) {
+                if (set.contains(new Position(ys[i], xs[i]))) {
+                    found++;
+                }
+            }
+            contains = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (final Position position : set) {
+                found += position.getX();
+            }
+            iterate = System.nanoTime() - start;
+        }
+        return consume(found, format(add, xs.length) + "\t" + format(contains, xs.length) + "\t"
+                + format(iterate, xs.length));
+    }
+
+    private static String benchmarkPositionSet(final int[] xs, final int[] ys) {
+        long add = 0, contains = 0, iterate = 0, found = 0;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            final PositionSet set = new PositionSet();
+            long start = System.nanoTime();
+            for (int i = 0; i < xs.length; i++) {
+                set.add(xs[i], ys[i]);
+            }
+            add = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < xs.length; i++) {
+                if (set.contains(ys[i], xs[i])) {
+                    found++;
+                }
+            }
+            contains = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int slot = set.nextSlot(0); slot >= 0; slot = set.nextSlot(slot + 1)) {
+                found += set.getX(slot);
+            }
+            iterate = System.nanoTime() - start;
+        }
+        return consume(found, format(add, xs.length) + "\t" + format(contains, xs.length) + "\t"
+                + format(iterate, xs.length));
+    }
+
+    /**
+     * Uses the result of the loops so that they are not optimised away.
+     */
+    private static String consume(final long result, final String times) {
+        return result == -1 ? "" : times;
+    }
+
+    private static String format(final long nanos, final int operations) {
+        return String.format("%.1f", (double) nanos / operations);
+    }
+}
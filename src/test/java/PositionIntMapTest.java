@@ -0,0 +1,63 @@
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Tests used to test the implementation of PositionIntMap.
+ */
+public class PositionIntMapTest {
+
+    private final int missing = -1;
+    private PositionIntMap map;
+
+    @Before
+    public void setUp() {
+        map = new PositionIntMap(missing);
+    }
+
+    @Test
+    public void get_missingCoordinatesGiveTheMissingValue() {
+        Assert.assertTrue(map.get(1, 1) == missing);
+        Assert.assertFalse(map.containsKey(1, 1));
+    }
+
+    @Test
+    public void put_getterValueMatchesSetterValue() {
+        Assert.assertTrue(map.put(1, 2, 7) == missing);
+        Assert.assertTrue(map.put(1, 2, 8) == 7);
+        Assert.assertTrue(map.get(1, 2) == 8);
+        Assert.assertTrue(map.size() == 1);
+    }
+
+    @Test
+    public void addTo_countsStartFromZero() {
+        Assert.assertTrue(map.addTo(4, 5, 1) == 1);
+        Assert.assertTrue(map.addTo(4, 5, 2) == 3);
+        Assert.assertTrue(map.addTo(4, 5, -3) == 0);
+        Assert.assertTrue(map.containsKey(4, 5));
+    }
+
+    @Test
+    public void putAndRemove_matchesHashMapWhileGrowing() {
+        final HashMap<Position, Integer> expected = new HashMap<Position, Integer>();
+        final Random rand = new Random(2);
+
+        for (int i = 0; i < 20000; i++) {
+            final int x = rand.nextInt(60), y = rand.nextInt(60);
+            if (rand.nextInt(3) == 0) {
+                final Integer removed = expected.remove(new Position(x, y));
+                Assert.assertTrue(map.remove(x, y) == (removed == null ? missing : removed));
+            } else {
+                map.put(x, y, i);
+                expected.put(new Position(x, y), i);
+            }
+        }
+        Assert.assertTrue(map.size() == expected.size());
+        for (int slot = map.nextSlot(0); slot >= 0; slot = map.nextSlot(slot + 1)) {
+            Assert.assertTrue(expected.get(new Position(map.getX(slot), map.getY(slot))) == map.getValue(slot));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Tests used to test the implementation of PositionSet.
+ */
+public class PositionSetTest {
+
+    private PositionSet set;
+
+    @Before
+    public void setUp() {
+        set = new PositionSet();
+    }
+
+    @Test
+    public void add_coordinatesAreOnlyAddedOnce() {
+        Assert.assertTrue(set.add(3, 4));
+        Assert.assertFalse(set.add(3, 4));
+        Assert.assertTrue(set.contains(3, 4));
+        Assert.assertFalse(set.contains(4, 3));
+        Assert.assertTrue(set.size() == 1);
+    }
+
+    @Test
+    public void add_negativeAndLargeCoordinates() {
+        Assert.assertTrue(set.add(-1, -1));
+        Assert.assertTrue(set.add(999999, 999999));
+        Assert.assertTrue(set.contains(-1, -1) && set.contains(999999, 999999));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_coordinatesMarkingFreeSlots() {
+        set.add(Integer.MIN_VALUE, 0);
+    }
+
+    @Test
+    public void addAndRemove_matchesHashSetWhileGrowing() {
+        final HashSet<Position> expected = new HashSet<Position>();
+        final Random rand = new Random(1);
+
+        for (int i = 0; i < 20000; i++) {
+            final int x = rand.nextInt(100), y = rand.nextInt(100);
+            if (rand.nextInt(3) == 0) {
+                Assert.assertTrue(set.remove(x, y) == expected.remove(new Position(x, y)));
+            } else {
+                Assert.assertTrue(set.add(x, y) == expected.add(new Position(x, y)));
+            }
+        }
+        Assert.assertTrue(set.size() == expected.size());
+        for (int x = 0; x < 100; x++) {
+            for (int y = 0; y < 100; y++) {
+                Assert.assertTrue(set.contains(x, y) == expected.contains(new Position(x, y)));
+            }
+        }
+    }
+
+    @Test
+    public void nextSlot_visitsEveryCoordinateOnce() {
+        final HashSet<Position> visited = new HashSet<Position>();
+
+        for (int i = 0; i < 50; i++) {
+            set.add(i, i * 2);
+        }
+        for (int slot = set.nextSlot(0); slot >= 0; slot = set.nextSlot(slot + 1)) {
+            Assert.assertTrue(visited.add(new Position(set.getX(slot), set.getY(slot))));
+        }
+        Assert.assertTrue(visited.size() == 50 && visited.contains(new Position(49, 98)));
+    }
+
+    @Test
+    public void clear_setIsEmpty() {
+        set.add(1, 2);
+        set.clear();
+
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertFalse(set.contains(1, 2));
+        Assert.assertTrue(set.nextSlot(0) == -1);
+    }
+}
@@ -46,4 +46,24 @@ public class PositionTest {
     public void equals_nonPositionObject() {
         Assert.assertFalse(position.equals(new Object()));
     }
+
+    @Test
+    public void hashCode_equalPositionsHaveEqualHashCodes() {
+        Assert.assertTrue(position.hashCode() == new Position(x, y).hashCode());
+    }
+
+    @Test
+    public void valueOf_positionsOfUsualMapsAreShared() {
+        Assert.assertTrue(Position.valueOf(x, y) == Position.valueOf(x, y));
+        Assert.assertTrue(Position.valueOf(x, y).equals(position));
+        Assert.assertTrue(Position.valueOf(-1, 100000).equals(new Position(-1, 100000)));
+    }
+
+    @Test
+    public void pack_unpackGivesTheCoordinatesBack() {
+        final long packed = Position.pack(-3, 1000000);
+
+        Assert.assertTrue(Position.unpackX(packed) == -3 && Position.unpackY(packed) == 1000000);
+        Assert.assertTrue(Position.valueOf(position.pack()).equals(position));
+    }
 }
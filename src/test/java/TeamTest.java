@@ -1,9 +1,6 @@
-import exceptions.MapWasAlreadyInitialized;
 import exceptions.PositionIsOutOfRange;
 import org.junit.*;
 
-import java.lang.reflect.Field;
-
 public class TeamTest {
 
     private Team team;
@@ -14,14 +11,6 @@ public class TeamTest {
         team = new Team(teamID);
     }
 
-    @After
-    public void tearDown() throws NoSuchFieldException, IllegalAccessException {
-        // Clear Map instance
-        Field instance = Map.class.getDeclaredField("instance");
-        instance.setAccessible(true);
-        instance.set(null, null);
-    }
-
     @Test
     public void newTeam_teamIdMatchesWithConstructorArgument() {
         Assert.assertTrue(team.getID() == teamID);
@@ -38,7 +27,7 @@ public class TeamTest {
     }
 
     @Test
-    public void send_positionActuallyAddedToPlayersVisitedList() throws PositionIsOutOfRange, MapWasAlreadyInitialized {
+    public void send_positionActuallyAddedToPlayersVisitedList() throws PositionIsOutOfRange {
 
         final Position pos[] = {
                 new Position(10, 20),
@@ -50,7 +39,7 @@ public class TeamTest {
         };
 
         // Generate map
-        generateMap(30);
+        generateMap(30, players);
 
         // Set and send positions
         players[0].setPosition(pos[0]);
@@ -63,12 +52,123 @@ public class TeamTest {
         Assert.assertTrue(players[1].wasVisited(pos[0].getX(), pos[0].getY()));
     }
 
-    private void generateMap(final int mapSize) throws MapWasAlreadyInitialized {
+    @Test
+    public void send_playersOfTheTeamShareOneVisibility() throws PositionIsOutOfRange {
+        final Player players[] = {
+                new Player(0, team),
+                new Player(1, team)
+        };
+        final Player stranger = new Player(2);
+
+        generateMap(30, new Player[]{players[0], players[1], stranger});
+        players[0].setPosition(new Position(3, 4));
+
+        Assert.assertTrue(players[0].getVisibility() == team.getVisibility());
+        Assert.assertTrue(players[1].getVisibility() == team.getVisibility());
+        Assert.assertTrue(players[1].wasVisited(3, 4));
+        Assert.assertFalse(stranger.wasVisited(3, 4));
+        Assert.assertTrue(team.getVisibility().getRevealedCount() == 1);
+    }
+
+    @Test
+    public void endTurn_teamDeltaHoldsTheTilesOfEveryMember() {
+        final Player players[] = {
+                new Player(0, team),
+                new Player(1, team)
+        };
+
+        generateMap(30, players);
+        players[0].setPosition(new Position(1, 1));
+        players[1].setPosition(new Position(2, 2));
+        Assert.assertTrue(players[0].getTurnDelta().getRevealed().contains(2, 2));
+
+        // A player ending its turn does not clear the tiles of the team
+        players[0].endTurn();
+        Assert.assertTrue(players[1].getTurnDelta().getRevealed().size() == 2);
+        team.endTurn();
+        Assert.assertTrue(players[1].getTurnDelta().getRevealed().isEmpty());
+    }
+
+    @Test
+    public void flush_batchedPositionsAreRevealedOnFlush() throws PositionIsOutOfRange {
+        final Player players[] = {
+                new Player(0, team),
+                new Player(1, team)
+        };
+
+        generateMap(30, players);
+        team.setSyncMode(Team.SYNC_MODE.BATCHED);
+        players[0].setPosition(new Position(3, 4));
+        players[0].setPosition(new Position(3, 5));
+
+        // The player sees its own positions, the team only once flushed
+        Assert.assertTrue(players[0].wasVisited(3, 4));
+        Assert.assertFalse(players[1].wasVisited(3, 4));
+        team.flush();
+        Assert.assertTrue(players[1].wasVisited(3, 4) && players[1].wasVisited(3, 5));
+        Assert.assertTrue(team.getVisibility().getTurnRevealed().size() == 2);
+    }
+
+    @Test
+    public void setSyncMode_switchingToImmediateFlushes() throws PositionIsOutOfRange {
+        final Player players[] = {
+                new Player(0, team),
+                new Player(1, team)
+        };
+
+        generateMap(30, players);
+        team.setSyncMode(Team.SYNC_MODE.BATCHED);
+        players[0].setPosition(new Position(7, 7));
+        team.setSyncMode(Team.SYNC_MODE.IMMEDIATE);
+        Assert.assertTrue(players[1].wasVisited(7, 7));
+    }
+
+    @Test
+    public void send_movesOfConcurrentPlayersAreAllSeen() throws InterruptedException, PositionIsOutOfRange {
+        final int mapSize = 40;
+        final Player players[] = new Player[8];
+        final Thread threads[] = new Thread[players.length];
+
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player(i, team);
+        }
+        generateMap(mapSize, players);
+
+        // Every player walks its own columns, so neighbouring tiles share words of the bitset
+        for (int i = 0; i < players.length; i++) {
+            final Player player = players[i];
+            final int column = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int y = 0; y < mapSize; y++) {
+                        for (int x = column; x < mapSize; x += players.length) {
+                            player.setPosition(new Position(x, y));
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertTrue(team.getVisibility().getRevealedCount() == mapSize * mapSize);
+        for (final Player player : players) {
+            Assert.assertTrue(player.wasVisited(mapSize - 1, mapSize - 1));
+        }
+    }
+
+    private void generateMap(final int mapSize, final Player players[]) {
         int numberOfPlayers = 3;
 
         // Map is needed to set the size of the map used by wasVisited
         // Can be anything or can use mocking
         Map map = new SafeMap();
         Assume.assumeTrue(map.setMapSize(mapSize, mapSize, numberOfPlayers));
+        for (final Player player : players) {
+            player.setMap(map);
+        }
     }
 }
@@ -0,0 +1,140 @@
+import java.util.Random;
+
+/**
+ * Compares the footprint and access speed of {@link PackedTileStorage} against the
+ * TILE_TYPE[][] array that Map used before. It is not a test (surefire does not pick
+ * it up) and is run by hand, ideally with a large heap:
+ * <p>
+ * java -Xmx2g -cp target/classes:target/test-classes TileStorageBenchmark
+ * <p>
+ * The array footprint is estimated for a 64-bit JVM with compressed references, that
+ * is a 16 byte header per array plus 4 bytes per reference.
+ */
+public class TileStorageBenchmark {
+
+    private static final int[] SIZES = {50, 500, 1000, 5000, 10000};
+    private static final int READS = 20000000;
+
+    public static void main(String args[]) {
+        System.out.println("size\tarray bytes\tpacked bytes\tarray scan ns/tile\tpacked scan ns/tile"
+                + "\tarray random ns/read\tpacked random ns/read");
+
+        for (final int size : SIZES) {
+            final PackedTileStorage packed = new PackedTileStorage(size, size);
+            Map.TILE_TYPE[][] array;
+
+            try {
+                array = new Map.TILE_TYPE[size][size];
+            } catch (OutOfMemoryError e) {
+                array = null;
+            }
+            fill(array, packed, size);
+
+            final long arrayBytes = 16 + (long) size * (16 + 4L * size);
+            final String arrayScan = array == null ? "n/a" : format(scanArray(array, size));
+            final String arrayRandom = array == null ? "n/a" : format(randomArray(array, size));
+
+            System.out.println(size + "\t" + arrayBytes + "\t" + (16 + packed.getFootprint())
+                    + "\t" + arrayScan + "\t" + format(scanPacked(packed, size))
+                    + "\t" + arrayRandom + "\t" + format(randomPacked(packed, size)));
+        }
+    }
+
+    private static void fill(final Map.TILE_TYPE[][] array, final PackedTileStorage packed, final int size) {
+        final Random rand = new Random(size);
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                final Map.TILE_TYPE type = rand.nextInt(10) == 0 ? Map.TILE_TYPE.WATER : Map.TILE_TYPE.GRASS;
+                if (array != null) {
+                    array[x][y] = type;
+                }
+                packed.setTile(x, y, type);
+            }
+        }
+    }
+
+    /**
+     * Reads every tile row by row, the way HTMLGenerator does, and returns ns per tile.
+     */
+    private static double scanArray(final Map.TILE_TYPE[][] array, final int size) {
+        int water = 0;
+        long start = 0;
+
+        // First round is a warm up
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    if (array[x][y] == Map.TILE_TYPE.WATER) {
+                        water++;
+                    }
+                }
+            }
+        }
+        return consume(water, (double) (System.nanoTime() - start) / ((long) size * size));
+    }
+
+    private static double scanPacked(final PackedTileStorage packed, final int size) {
+        int water = 0;
+        long start = 0;
+
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    if (packed.getTile(x, y) == Map.TILE_TYPE.WATER) {
+                        water++;
+                    }
+                }
+            }
+        }
+        return consume(water, (double) (System.nanoTime() - start) / ((long) size * size));
+    }
+
+    /**
+     * Reads random tiles, the way setInitialPlayerPosition does, and returns ns per read.
+     */
+    private static double randomArray(final Map.TILE_TYPE[][] array, final int size) {
+        final Random rand = new Random(1);
+        int water = 0;
+        long start = 0;
+
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (int i = 0; i < READS; i++) {
+                if (array[rand.nextInt(size)][rand.nextInt(size)] == Map.TILE_TYPE.WATER) {
+                    water++;
+                }
+            }
+        }
+        return consume(water, (double) (System.nanoTime() - start) / READS);
+    }
+
+    private static double randomPacked(final PackedTileStorage packed, final int size) {
+        final Random rand = new Random(1);
+        int water = 0;
+        long start = 0;
+
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (int i = 0; i < READS; i++) {
+                if (packed.getTile(rand.nextInt(size), rand.nextInt(size)) == Map.TILE_TYPE.WATER) {
+                    water++;
+                }
+            }
+        }
+        return consume(water, (double) (System.nanoTime() - start) / READS);
+    }
+
+    /**
+     * Uses the result of a loop so that it is not optimised away.
+     */
+    private static double consume(final int result, final double time) {
+        return result == -1 ? -time : time;
+    }
+
+    private static String format(final double value) {
+        return String.format("%.2f", value);
+    }
+}
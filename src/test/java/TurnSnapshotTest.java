@@ -0,0 +1,111 @@
+import exceptions.InitialPlayerPositionWasNotSet;
+import exceptions.PositionIsOutOfRange;
+import exceptions.SizeOfMapWasNotSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests used to test the implementation of TurnSnapshot.
+ */
+public class TurnSnapshotTest {
+
+    private Map map;
+    private final int size = 20;
+
+    @Before
+    public void setUp() throws SizeOfMapWasNotSet {
+        map = new HazardousMap();
+        map.setMapSize(size, size, 3);
+        map.generate();
+    }
+
+    @Test
+    public void getTile_tilesMatchTheMap() throws PositionIsOutOfRange {
+        final TurnSnapshot snapshot = new TurnSnapshot(map, new Player[0]);
+
+        Assert.assertTrue(snapshot.getSize() == size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                Assert.assertTrue(snapshot.getTile(x, y) == map.getTileType(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void getTile_generatingTheMapAgainDoesNotChangeEarlierSnapshots()
+            throws PositionIsOutOfRange, SizeOfMapWasNotSet {
+        final TurnSnapshot first = new TurnSnapshot(map, new Player[0]);
+        final Map.TILE_TYPE[] row = new Map.TILE_TYPE[size];
+        for (int x = 0; x < size; x++) {
+            row[x] = map.getTileType(x, 0);
+        }
+        map.generate();
+        final TurnSnapshot second = new TurnSnapshot(map, new Player[0]);
+
+        for (int x = 0; x < size; x++) {
+            Assert.assertTrue(first.getTile(x, 0) == row[x]);
+            Assert.assertTrue(second.getTile(x, 0) == map.getTileType(x, 0));
+        }
+    }
+
+    @Test
+    public void isRevealed_laterMovesDoNotChangeTheSnapshot() {
+        final Player player = new Player(4);
+        player.setMap(map);
+        player.setPosition(new Position(2, 3));
+
+        final TurnSnapshot snapshot = new TurnSnapshot(map, new Player[]{player});
+        player.setPosition(new Position(2, 4));
+
+        Assert.assertTrue(snapshot.getPlayerID(0) == 4 && snapshot.getTeamID(0) == TurnSnapshot.NO_TEAM);
+        Assert.assertTrue(snapshot.getX(0) == 2 && snapshot.getY(0) == 3);
+        Assert.assertTrue(snapshot.isRevealed(0, 2, 3));
+        Assert.assertFalse(snapshot.isRevealed(0, 2, 4));
+    }
+
+    @Test
+    public void isRevealed_teamTilesAreRevealedToTheWholeTeam() {
+        final Team team = new Team(2);
+        final Player players[] = {new Player(1, team), new Player(2, team), new Player(3)};
+        for (final Player p : players) {
+            p.setMap(map);
+        }
+        players[0].setPosition(new Position(5, 5));
+        players[2].setPosition(new Position(6, 6));
+
+        // Buffered positions are only seen by the player that buffered them
+        team.setSyncMode(Team.SYNC_MODE.BATCHED);
+        players[1].setPosition(new Position(7, 7));
+
+        final TurnSnapshot snapshot = new TurnSnapshot(map, players);
+        Assert.assertTrue(snapshot.getTeamID(1) == 2);
+        Assert.assertTrue(snapshot.isRevealed(1, 5, 5) && snapshot.isRevealed(1, 7, 7));
+        Assert.assertTrue(snapshot.isRevealed(0, 5, 5) && !snapshot.isRevealed(0, 7, 7));
+        Assert.assertFalse(snapshot.isRevealed(2, 5, 5));
+        Assert.assertTrue(snapshot.getX(1) == 7 && snapshot.getY(1) == 7);
+    }
+
+    @Test
+    public void getTurnRevealed_onlyTheChangesOfTheTurnAreKept() {
+        final Player player = new Player(1);
+        player.setMap(map);
+        player.setPosition(new Position(2, 3));
+        player.endTurn();
+        player.setPosition(new Position(2, 4));
+        player.setPosition(new Position(2, 5));
+
+        final TurnSnapshot snapshot = new TurnSnapshot(map, new Player[]{player});
+        Assert.assertTrue(snapshot.getPreviousX(0) == 2 && snapshot.getPreviousY(0) == 3);
+        Assert.assertTrue(snapshot.getTurnRevealedCount(0) == 2);
+        for (int i = 0; i < snapshot.getTurnRevealedCount(0); i++) {
+            Assert.assertTrue(snapshot.getTurnRevealedX(0, i) == 2);
+            Assert.assertTrue(snapshot.getTurnRevealedY(0, i) == 4 || snapshot.getTurnRevealedY(0, i) == 5);
+        }
+    }
+
+    @Test(expected = InitialPlayerPositionWasNotSet.class)
+    public void TurnSnapshot_playerWithNoPositionCausesException() {
+        new TurnSnapshot(map, new Player[]{new Player(1)});
+    }
+}
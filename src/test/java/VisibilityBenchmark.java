@@ -0,0 +1,99 @@
+import exceptions.PositionIsOutOfRange;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the cost of deciding which cells of a 50 x 50 map to uncover for one player
+ * during a late turn, as HTMLGenerator.createTable does for every cell, between the list
+ * scan that Player.wasVisited used before and the {@link Visibility} bits. It is not a
+ * test (surefire does not pick it up) and is run by hand:
+ * <p>
+ * java -cp target/classes:target/test-classes VisibilityBenchmark
+ */
+public class VisibilityBenchmark {
+
+    private static final int SIZE = 50;
+    private static final int[] MOVES = {100, 500, 1000, 2000};
+    private static final int TURNS = 200;
+
+    public static void main(String args[]) throws PositionIsOutOfRange {
+        System.out.println("moves\tlist scan us/turn\tvisibility us/turn");
+
+        for (final int moves : MOVES) {
+            final List<Position> visited = new ArrayList<Position>();
+            final Player player = new Player(1);
+            final Map map = new SafeMap();
+            final Random rand = new Random(moves);
+
+            map.setMapSize(SIZE, SIZE, 2);
+            player.setMap(map);
+            // A random walk, which revisits tiles as players do
+            int x = SIZE / 2, y = SIZE / 2;
+            for (int i = 0; i < moves; i++) {
+                x = Math.max(0, Math.min(SIZE - 1, x + rand.nextInt(3) - 1));
+                y = Math.max(0, Math.min(SIZE - 1, y + rand.nextInt(3) - 1));
+                visited.add(new Position(x, y));
+                player.setPosition(new Position(x, y));
+            }
+            System.out.println(moves + "\t" + format(renderWithList(visited)) + "\t" + format(renderWithVisibility(player)));
+        }
+    }
+
+    /**
+     * Checks every cell the way the list based wasVisited did, and returns us per turn.
+     */
+    private static double renderWithList(final List<Position> visited) {
+        int uncovered = 0;
+        long start = 0;
+
+        // First round is a warm up
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (int turn = 0; turn < TURNS; turn++) {
+                for (int y = 0; y < SIZE; y++) {
+                    for (int x = 0; x < SIZE; x++) {
+                        final Position toCheck = new Position(x, y);
+                        for (final Position position : visited) {
+                            if (position.equals(toCheck)) {
+                                uncovered++;
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return consume(uncovered, (System.nanoTime() - start) / 1000.0 / TURNS);
+    }
+
+    private static double renderWithVisibility(final Player player) throws PositionIsOutOfRange {
+        int uncovered = 0;
+        long start = 0;
+
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (int turn = 0; turn < TURNS; turn++) {
+                for (int y = 0; y < SIZE; y++) {
+                    for (int x = 0; x < SIZE; x++) {
+                        if (player.wasVisited(x, y)) {
+                            uncovered++;
+                        }
+                    }
+                }
+            }
+        }
+        return consume(uncovered, (System.nanoTime() - start) / 1000.0 / TURNS);
+    }
+
+    /**
+     * Uses the result of a loop so that it is not optimised away.
+     */
+    private static double consume(final int result, final double time) {
+        return result == -1 ? -time : time;
+    }
+
+    private static String format(final double value) {
+        return String.format("%.2f", value);
+    }
+}
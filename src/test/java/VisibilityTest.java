@@ -0,0 +1,88 @@
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests used to test the implementation of Visibility.
+ */
+public class VisibilityTest {
+
+    private Visibility visibility;
+    private final int size = 13;
+
+    @Before
+    public void setUp() {
+        visibility = new Visibility();
+        visibility.bind(size);
+    }
+
+    @Test
+    public void isRevealed_onlyRevealedTilesAreRevealed() {
+        visibility.reveal(3, 4);
+        visibility.reveal(12, 12);
+
+        Assert.assertTrue(visibility.isRevealed(3, 4));
+        Assert.assertTrue(visibility.isRevealed(12, 12));
+        Assert.assertFalse(visibility.isRevealed(4, 3));
+        Assert.assertFalse(visibility.isRevealed(2, 4));
+        Assert.assertTrue(visibility.getRevealedCount() == 2);
+    }
+
+    @Test
+    public void reveal_onlyNewTilesAreRevealedDuringTheTurn() {
+        Assert.assertTrue(visibility.reveal(1, 1));
+        Assert.assertFalse(visibility.reveal(1, 1));
+        Assert.assertTrue(visibility.getTurnRevealed().size() == 1);
+
+        visibility.endTurn();
+        Assert.assertFalse(visibility.reveal(1, 1));
+        Assert.assertTrue(visibility.getTurnRevealed().isEmpty());
+        Assert.assertTrue(visibility.isRevealed(1, 1));
+    }
+
+    @Test
+    public void reveal_tilesOutsideTheMapAreIgnored() {
+        visibility.reveal(-1, 0);
+        visibility.reveal(size, 0);
+
+        Assert.assertTrue(visibility.getRevealedCount() == 0);
+    }
+
+    @Test
+    public void bind_tilesRevealedBeforeTheMapAreKept() {
+        final Visibility unbound = new Visibility();
+        unbound.reveal(5, 10);
+        unbound.reveal(size + 1, 1);
+        unbound.bind(size);
+
+        Assert.assertTrue(unbound.isRevealed(5, 10));
+        Assert.assertTrue(unbound.getRevealedCount() == 1);
+    }
+
+    @Test
+    public void nextRevealed_goesThroughTheRevealedTilesInOrder() {
+        visibility.reveal(0, 0);
+        visibility.reveal(1, 5);
+        visibility.reveal(12, 12);
+
+        final int first = visibility.nextRevealed(0);
+        final int second = visibility.nextRevealed(first + 1);
+        final int third = visibility.nextRevealed(second + 1);
+
+        Assert.assertTrue(first == 0);
+        Assert.assertTrue(second == 5 * size + 1);
+        Assert.assertTrue(third == size * size - 1);
+        Assert.assertTrue(visibility.nextRevealed(third + 1) == -1);
+    }
+
+    @Test
+    public void reveal_largeMapsAreKeptAsASet() {
+        final Visibility large = new Visibility();
+        large.bind(Visibility.MAX_BITSET_MAP_SIZE + 1);
+        large.reveal(Visibility.MAX_BITSET_MAP_SIZE, Visibility.MAX_BITSET_MAP_SIZE);
+
+        Assert.assertTrue(large.isRevealed(Visibility.MAX_BITSET_MAP_SIZE, Visibility.MAX_BITSET_MAP_SIZE));
+        Assert.assertFalse(large.isRevealed(0, 0));
+        Assert.assertTrue(large.getRevealedCount() == 1);
+    }
+}
@@ -0,0 +1,67 @@
+import java.util.Random;
+
+/**
+ * Compares the time taken to place water by {@link Map#placeWater} against the rejection
+ * sampling that SafeMap and HazardousMap used before, which picked random tiles and tried
+ * again whenever the tile was already Water or the Treasure. It is not a test (surefire
+ * does not pick it up) and is run by hand:
+ * <p>
+ * java -cp target/classes:target/test-classes WaterPlacementBenchmark
+ */
+public class WaterPlacementBenchmark {
+
+    private static final int SIZE = 1000;
+    private static final int[] PERCENTAGES = {10, 35, 50, 75, 90, 95, 99};
+    private static final int ROUNDS = 5;
+
+    public static void main(String args[]) {
+        System.out.println("Map of " + SIZE + " x " + SIZE + ", average of " + ROUNDS + " rounds");
+        System.out.println("water %\trejection ms\tfloyd ms");
+
+        for (final int percentage : PERCENTAGES) {
+            long rejection = 0, floyd = 0;
+
+            // First round is a warm up
+            for (int round = 0; round <= ROUNDS; round++) {
+                PackedTileStorage storage = new PackedTileStorage(SIZE, SIZE);
+                storage.setTile(0, 0, Map.TILE_TYPE.TREASURE);
+                long start = System.nanoTime();
+                placeWaterByRejection(storage, percentage, new Random(round));
+                if (round > 0) {
+                    rejection += System.nanoTime() - start;
+                }
+
+                storage = new PackedTileStorage(SIZE, SIZE);
+                storage.setTile(0, 0, Map.TILE_TYPE.TREASURE);
+                start = System.nanoTime();
+                Map.placeWater(storage, SIZE, SIZE, percentage, 0, new Random(round));
+                if (round > 0) {
+                    floyd += System.nanoTime() - start;
+                }
+            }
+            System.out.println(percentage + "\t" + format(rejection) + "\t" + format(floyd));
+        }
+    }
+
+    /**
+     * The loop that SafeMap and HazardousMap used before.
+     */
+    private static void placeWaterByRejection(final TileStorage storage, final int percentage, final Random rand) {
+        int x, y, counter = 0;
+        final int totalAmountOfWaterTiles = (int) Math.ceil(((double) (SIZE * SIZE) / 100) * percentage);
+
+        while (counter++ < totalAmountOfWaterTiles) {
+            x = rand.nextInt(SIZE);
+            y = rand.nextInt(SIZE);
+            if (storage.getTile(x, y) != Map.TILE_TYPE.GRASS) {
+                counter--;
+                continue;
+            }
+            storage.setTile(x, y, Map.TILE_TYPE.WATER);
+        }
+    }
+
+    private static String format(final long nanos) {
+        return String.format("%.1f", nanos / 1e6 / ROUNDS);
+    }
+}